@@ -1,6 +1,5 @@
 package sg.edu.nus.iss.universitystore.constants;
 
-import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 /**
@@ -11,13 +10,6 @@ import java.time.format.DateTimeFormatter;
  */
 public final class Constants {
 
-	public static final class DateTime {
-		/**
-		 * System Date
-		 */
-		public static final LocalDate CURRENT_DATE = LocalDate.now();
-	}
-
 	public static final class Common {
 		/**
 		 * Empty String
@@ -64,6 +56,48 @@ public final class Constants {
 		public enum FILE_FOLDER {
 			TEST, DATA;
 		}
+		/**
+		 * Durability of records appended to a Data File. BUFFERED leaves the
+		 * flush to the operating system, FSYNC forces every append to disk
+		 */
+		public enum DURABILITY {
+			BUFFERED, FSYNC;
+		}
+		/**
+		 * Durability used for appends, can be overridden with
+		 * -Dstore.durability=FSYNC
+		 */
+		public static final DURABILITY APPEND_DURABILITY = DURABILITY
+				.valueOf(System.getProperty("store.durability", DURABILITY.BUFFERED.toString()).toUpperCase());
+		/**
+		 * Prefix of the line which marks an entry of a Data File as deleted
+		 */
+		public static final String TOMBSTONE = "#DELETED#,";
+		/**
+		 * Prefix of the temporary file used while a Data File is rewritten
+		 */
+		public static final String TEMP_FILE_PREFIX = "~";
+		/**
+		 * Share of dead lines in a Data File after which it is compacted, can be
+		 * overridden with -Dstore.compaction.ratio=0.3
+		 */
+		public static final double COMPACTION_GARBAGE_RATIO = Double
+				.parseDouble(System.getProperty("store.compaction.ratio", "0.5"));
+		/**
+		 * Data Files with fewer lines than this are not compacted
+		 */
+		public static final int COMPACTION_MIN_LINES = 1000;
+		/**
+		 * Size in bytes of the chunks in which Data Files are read
+		 */
+		public static final int READ_BUFFER_BYTES = 8 * 1024;
+		/**
+		 * Size in bytes of the chunks in which ranges of Data Files of at least
+		 * this size are read, can be overridden with
+		 * -Dstore.large.read.buffer=65536
+		 */
+		public static final int LARGE_READ_BUFFER_BYTES = Integer
+				.parseInt(System.getProperty("store.large.read.buffer", String.valueOf(1 << 20)));
 		/**
 		 * Directory Separators for WIN '\' and MAC '/'
 		 */
@@ -122,6 +156,39 @@ public final class Constants {
 			 * File Name for Vendor
 			 */
 			public static final String VENDOR_DAT = "Vendor";
+			/**
+			 * File Name for the last Product number used in each Category
+			 */
+			public static final String SEQUENCE_DAT = "Sequence";
+			/**
+			 * File Name prefix for the segments of the Transaction log, the
+			 * segment key (yyyy-MM) follows the prefix
+			 */
+			public static final String SALES_SEGMENT_PREFIX = "Sales_";
+			/**
+			 * File Name for the index of the first offset of each date in the
+			 * segments of the Transaction log
+			 */
+			public static final String SALES_INDEX_DAT = "SalesIndex";
+			/**
+			 * File Name for the quantity sold and revenue of each Product on
+			 * each date
+			 */
+			public static final String DAILY_SALES_DAT = "DailySales";
+			/**
+			 * File Name for the journal of checkouts which have been committed
+			 * and not yet applied to the other Data Files
+			 */
+			public static final String CHECKOUT_JOURNAL_DAT = "Journal";
+			/**
+			 * File Name for the changes of loyalty points of the Members
+			 */
+			public static final String LOYALTY_LEDGER_DAT = "LoyaltyLedger";
+			/**
+			 * File Name for the loyalty points changes of each Member folded up
+			 * to a point of the ledger
+			 */
+			public static final String LOYALTY_SNAPSHOT_DAT = "LoyaltySnapshot";
 
 		}
 
@@ -179,6 +246,18 @@ public final class Constants {
 			 */
 			public static final int LOYALTY_NEW_MEMBER = -1;
 			public static final int MEMBER_MINIMUM_COUNT = 10;
+			/**
+			 * Transaction Identifier of loyalty points changes which are not
+			 * made by a Transaction
+			 */
+			public static final int LOYALTY_NO_TRANSACTION = 0;
+			/**
+			 * Number of loyalty ledger entries after which the ledger is folded
+			 * into a snapshot, can be overridden with
+			 * -Dstore.loyalty.snapshot.entries=10000
+			 */
+			public static final int LOYALTY_SNAPSHOT_ENTRIES = Integer
+					.parseInt(System.getProperty("store.loyalty.snapshot.entries", "1000"));
 
 			public static final class Pattern {
 				public static final String MEMBER_ID_MATCH = "^[a-zA-Z0-9]+$";
@@ -244,6 +323,20 @@ public final class Constants {
 			public static final int CURRENCY_TO_LOYALTY_POINTS_CONVERSION_RATE = 10;
 			public static final int LOYALTY_POINTS_TO_CURRENCY_CONVERSION_RATE = 1;
 			public static final String STR_PRODUCTS_BELOW_THRESHOLD = "The following products are below threshold quantity:";
+			/**
+			 * Number of months of Transactions kept in each segment of the
+			 * Transaction log (1 monthly, 3 quarterly, 12 yearly), can be
+			 * overridden with -Dstore.sales.segment.months=12
+			 */
+			public static final int SEGMENT_MONTHS = Integer
+					.parseInt(System.getProperty("store.sales.segment.months", "1"));
+			/**
+			 * Number of locks shared by the Products, and of locks shared by the
+			 * Members, of concurrent checkouts, can be overridden with
+			 * -Dstore.checkout.lock.stripes=256
+			 */
+			public static final int CHECKOUT_LOCK_STRIPES = Integer
+					.parseInt(System.getProperty("store.checkout.lock.stripes", "64"));
 		}
 	}
 
@@ -303,5 +396,10 @@ public final class Constants {
 		public static final String STR_TRANSACTION_MEMBER_IDENTIFIER = "Member Id";
 		public static final String STR_TRANSACTION_PURCHASE_QUANTITY = "Purchased Quantity";
 		public static final String STR_TRANSACTION_DATE = "Date";
+		// Sales Summary
+		public static final int NUMBER_OF_SALES_SUMMARY_TABLE_COLUMNS = 3;
+		public static final String STR_SALES_SUMMARY_IDENTIFIER = "Category / Product";
+		public static final String STR_SALES_SUMMARY_QUANTITY = "Quantity Sold";
+		public static final String STR_SALES_SUMMARY_REVENUE = "Revenue";
 	}
 }
@@ -165,6 +165,8 @@ public class ViewConstants {
 		public static final String REP_MEMBER_PANE_DESC="Get all Members";
 		public static final String REP_TRANSACTION_PANE="Transactions";
 		public static final String REP_TRANSACTION_PANE_DESC="Get all Transactions.";
+		public static final String REP_SALES_SUMMARY_PANE="Sales Summary";
+		public static final String REP_SALES_SUMMARY_PANE_DESC="Get quantity sold and revenue by Category and Product.";
 	}
 
 	// Dashboard options
@@ -211,6 +213,8 @@ public class ViewConstants {
 		public static final String CHANGE_LABEL = "Change:";
 		public static final String CHANGE_MEMBER="Change Member";
 		public static final String INSUFFICIENT_LOYALTY_POINTS="Insufficient Loyalty Points";
+		public static final String CONTINUOUS_SCAN_LABEL = "Continuous Scan";
+		public static final String SCAN_LATENCY_TIP = "Scan latency: ";
 		
 		
 	}
@@ -0,0 +1,176 @@
+package sg.edu.nus.iss.universitystore.controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.Executor;
+
+import sg.edu.nus.iss.universitystore.exception.InventoryException;
+import sg.edu.nus.iss.universitystore.model.Product;
+import sg.edu.nus.iss.universitystore.utility.LatencyHistogram;
+
+/**
+ * Queue of the Bar Codes read by the scanner in continuous scan mode. Each Bar
+ * Code is looked up on the lookup executor, off the Event Dispatch Thread, and
+ * the Product found is delivered on the delivery executor. A Bar Code scanned
+ * again before its Product is delivered is not looked up again, it adds one
+ * to the quantity delivered, so a burst of scans of one item becomes one
+ * update of the sale.
+ * 
+ * The latency of each scan, from the scan to the return of its delivery, is
+ * recorded in a histogram.
+ * 
+ * @author Sanjay
+ *
+ */
+public class BarCodeScanQueue {
+
+	/**
+	 * Lookup of a Product by Bar Code
+	 */
+	public interface BarCodeLookup {
+		Product findProductByBarCode(String barCode) throws InventoryException;
+	}
+
+	/**
+	 * Receiver of the scans resolved
+	 */
+	public interface ScanListener {
+
+		/**
+		 * Called on the delivery executor once the Product of a Bar Code is
+		 * found
+		 * 
+		 * @param barCode
+		 * @param product
+		 *            Product, null if no Product has the Bar Code
+		 * @param quantity
+		 *            Number of scans of the Bar Code
+		 */
+		void onScanResolved(String barCode, Product product, int quantity);
+	}
+
+	/**
+	 * Scans of a Bar Code waiting for delivery
+	 */
+	private static final class PendingScan {
+
+		/**
+		 * Time of each scan in nanoseconds
+		 */
+		private final ArrayList<Long> scanTimes = new ArrayList<>();
+	}
+
+	private final BarCodeLookup lookup;
+	private final ScanListener listener;
+	private final Executor lookupExecutor;
+	private final Executor deliveryExecutor;
+	private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+	/**
+	 * Scans waiting for delivery by Bar Code, guarded by this queue
+	 */
+	private final HashMap<String, PendingScan> pendingScans = new HashMap<>();
+
+	/**
+	 * Bar Code Scan Queue Constructor
+	 * 
+	 * @param lookup
+	 * @param listener
+	 * @param lookupExecutor
+	 *            Executor of the lookups, a single thread keeps the scans in
+	 *            order
+	 * @param deliveryExecutor
+	 *            Executor of the deliveries, the Event Dispatch Thread for a
+	 *            view
+	 */
+	public BarCodeScanQueue(BarCodeLookup lookup, ScanListener listener, Executor lookupExecutor,
+			Executor deliveryExecutor) {
+		this.lookup = lookup;
+		this.listener = listener;
+		this.lookupExecutor = lookupExecutor;
+		this.deliveryExecutor = deliveryExecutor;
+	}
+
+	/**
+	 * @return the histogram of the latencies of the scans
+	 */
+	public LatencyHistogram getLatencyHistogram() {
+		return latencyHistogram;
+	}
+
+	/**
+	 * Queue a scan of a Bar Code
+	 * 
+	 * @param barCode
+	 */
+	public void scan(String barCode) {
+		long scanTime = System.nanoTime();
+		synchronized (this) {
+			PendingScan pendingScan = pendingScans.get(barCode);
+			if (pendingScan != null) {
+				pendingScan.scanTimes.add(scanTime);
+				return;
+			}
+
+			pendingScan = new PendingScan();
+			pendingScan.scanTimes.add(scanTime);
+			pendingScans.put(barCode, pendingScan);
+		}
+		lookupExecutor.execute(() -> resolve(barCode));
+	}
+
+	/**
+	 * Look up the Product of a Bar Code and deliver it with the scans queued
+	 * until the delivery. A lookup which fails is delivered as a Bar Code
+	 * without a Product.
+	 * 
+	 * @param barCode
+	 */
+	private void resolve(String barCode) {
+		boolean delivering = false;
+		try {
+			Product product;
+			try {
+				product = lookup.findProductByBarCode(barCode);
+			} catch (InventoryException inventoryExp) {
+				product = null;
+			} catch (RuntimeException runtimeExp) {
+				runtimeExp.printStackTrace();
+				product = null;
+			}
+
+			Product productFound = product;
+			deliveryExecutor.execute(() -> deliver(barCode, productFound));
+			delivering = true;
+		} finally {
+			// Scans of a Bar Code which is not delivered are dropped, so the
+			// next scan of it is looked up again
+			if (!delivering) {
+				synchronized (this) {
+					pendingScans.remove(barCode);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Deliver the Product of a Bar Code with the scans queued until now
+	 * 
+	 * @param barCode
+	 * @param product
+	 */
+	private void deliver(String barCode, Product product) {
+		PendingScan pendingScan;
+		synchronized (this) {
+			pendingScan = pendingScans.remove(barCode);
+		}
+		try {
+			listener.onScanResolved(barCode, product, pendingScan.scanTimes.size());
+		} finally {
+			long deliveryTime = System.nanoTime();
+			for (long scanTime : pendingScan.scanTimes) {
+				latencyHistogram.record(deliveryTime - scanTime);
+			}
+		}
+	}
+}
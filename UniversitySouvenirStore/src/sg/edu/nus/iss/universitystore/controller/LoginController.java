@@ -5,6 +5,7 @@ import javax.swing.JPanel;
 import sg.edu.nus.iss.universitystore.constants.ViewConstants;
 import sg.edu.nus.iss.universitystore.data.LoginManager;
 import sg.edu.nus.iss.universitystore.exception.LoginException;
+import sg.edu.nus.iss.universitystore.exception.LoginException.LoginError;
 import sg.edu.nus.iss.universitystore.model.StoreKeeper;
 import sg.edu.nus.iss.universitystore.utility.UIUtils;
 import sg.edu.nus.iss.universitystore.utility.UIUtils.DialogType;
@@ -65,8 +66,13 @@ public class LoginController implements ILoginDelegate {
 		StoreKeeper storeKeeper = new StoreKeeper(username, password);
 		
 		try {
-			if(LoginValidation.isValidData(username, password) && loginManager.isValidCredentials(storeKeeper)) {
-				UIUtils.navigateToDashboard(loginPanel);
+			if(LoginValidation.isValidData(username, password)) {
+				if (loginManager.hasCredentials(storeKeeper)) {
+					UIUtils.navigateToDashboard(loginPanel);
+				} else {
+					UIUtils.showMessageDialog(loginPanel, ViewConstants.StatusMessage.ERROR,
+							LoginError.INVALID_CREDENTIALS.toString(), DialogType.ERROR_MESSAGE);
+				}
 			}
 		} catch (LoginException loginExp) {
 			UIUtils.showMessageDialog(loginPanel, ViewConstants.StatusMessage.ERROR,
@@ -20,6 +20,7 @@ import sg.edu.nus.iss.universitystore.messages.Messages;
 import sg.edu.nus.iss.universitystore.model.Category;
 import sg.edu.nus.iss.universitystore.model.Member;
 import sg.edu.nus.iss.universitystore.model.Product;
+import sg.edu.nus.iss.universitystore.model.SalesSummary;
 import sg.edu.nus.iss.universitystore.model.TransactionReport;
 import sg.edu.nus.iss.universitystore.utility.TableDataUtils;
 import sg.edu.nus.iss.universitystore.utility.UIUtils;
@@ -174,4 +175,29 @@ public class ReportController implements IReportDelegate {
 					transactionExp.getMessage(), DialogType.ERROR_MESSAGE);
 		}
 	}
+
+	@Override
+	public void onSalesSummaryQuery(String startDate, String endDate) {
+		try {
+			// When fields are empty all sales are summarised
+			LocalDate start = LocalDate.MIN;
+			LocalDate end = LocalDate.MAX;
+			if (!startDate.isEmpty() || !endDate.isEmpty()) {
+				TransactionValidation.isValidData(startDate, endDate);
+				start = LocalDate.parse(startDate);
+				end = LocalDate.parse(endDate);
+			}
+
+			ArrayList<SalesSummary> arrSalesSummary = TransactionManager.getInstance().getSalesSummary(start, end);
+			reportPanel.setSalesSummaryTableData(TableDataUtils.getFormattedSalesSummaryListForTable(arrSalesSummary),
+					TableDataUtils.getHeadersForSalesSummaryTable());
+			if (arrSalesSummary.size() == 0) {
+				UIUtils.showMessageDialog(reportPanel, ViewConstants.StatusMessage.ERROR,
+						Messages.Error.Controller.NO_TRANSACTION_FOUND, DialogType.ERROR_MESSAGE);
+			}
+		} catch (TransactionException transactionExp) {
+			UIUtils.showMessageDialog(reportPanel, ViewConstants.StatusMessage.ERROR,
+					transactionExp.getMessage(), DialogType.ERROR_MESSAGE);
+		}
+	}
 }
@@ -1,6 +1,8 @@
 package sg.edu.nus.iss.universitystore.controller;
 
+import java.awt.Toolkit;
 import java.util.ArrayList;
+import java.util.concurrent.Executors;
 
 import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
@@ -16,10 +18,11 @@ import sg.edu.nus.iss.universitystore.exception.InventoryException;
 import sg.edu.nus.iss.universitystore.exception.MemberException;
 import sg.edu.nus.iss.universitystore.exception.TransactionException;
 import sg.edu.nus.iss.universitystore.messages.Messages;
+import sg.edu.nus.iss.universitystore.model.Cart;
 import sg.edu.nus.iss.universitystore.model.Discount;
 import sg.edu.nus.iss.universitystore.model.Member;
 import sg.edu.nus.iss.universitystore.model.Product;
-import sg.edu.nus.iss.universitystore.model.TransactionItem;
+import sg.edu.nus.iss.universitystore.utility.LatencyHistogram;
 import sg.edu.nus.iss.universitystore.utility.TableDataUtils;
 import sg.edu.nus.iss.universitystore.utility.UIUtils;
 import sg.edu.nus.iss.universitystore.utility.UIUtils.DialogType;
@@ -42,14 +45,9 @@ public class SalesController implements ISalesDelegate {
 	private SalesPanel salesPanel;
 
 	/**
-	 * The list of transaction items
+	 * The items of the sale with the discount associated to it.
 	 */
-	private ArrayList<TransactionItem> transactionItemList = new ArrayList<TransactionItem>();
-
-	/**
-	 * The discount associated to the sale.
-	 */
-	private Discount currentDiscount;
+	private Cart cart = new Cart();
 
 	/**
 	 * The member associated with the sale.
@@ -76,6 +74,12 @@ public class SalesController implements ISalesDelegate {
 	 */
 	private MemberManager memberManager;
 
+	/**
+	 * Bar Codes of the continuous scan mode, looked up off the Event Dispatch
+	 * Thread and added to the cart on it
+	 */
+	private BarCodeScanQueue scanQueue;
+
 	/***********************************************************/
 	// Constructors
 	/***********************************************************/
@@ -92,7 +96,12 @@ public class SalesController implements ISalesDelegate {
 			UIUtils.showMessageDialog(salesPanel, ViewConstants.StatusMessage.ERROR, e.getMessage(),
 					DialogType.ERROR_MESSAGE);
 		}
-
+		scanQueue = new BarCodeScanQueue(barCode -> InventoryManager.getInstance().findProductByBarCode(barCode),
+				this::onScanResolved, Executors.newSingleThreadExecutor(runnable -> {
+					Thread thread = new Thread(runnable, "BarCodeScan");
+					thread.setDaemon(true);
+					return thread;
+				}), SwingUtilities::invokeLater);
 	}
 
 	/***********************************************************/
@@ -102,6 +111,13 @@ public class SalesController implements ISalesDelegate {
 		return salesPanel;
 	}
 
+	/**
+	 * @return the histogram of the latencies of the continuous scan mode
+	 */
+	public LatencyHistogram getScanLatencyHistogram() {
+		return scanQueue.getLatencyHistogram();
+	}
+
 	/***********************************************************/
 	// Public Methods
 	/***********************************************************/
@@ -175,34 +191,14 @@ public class SalesController implements ISalesDelegate {
 							Messages.Error.Product.PRODUCT_QUANTITY_INSUFFICIENT, DialogType.WARNING_MESSAGE);
 					return;
 				}
-				// add transaction Item and show
-				TransactionItem item = new TransactionItem(product, quantity);
-				boolean isAdd = true;
-				// loop to make sure whether there is repeated scanned
-				// product,if repeated then increased
-				for (int i = 0; i < transactionItemList.size(); i++) {
-					if (transactionItemList.get(i).getProduct().getIdentifier()
-							.equals(item.getProduct().getIdentifier())) {
-						int old_quantity = transactionItemList.get(i).getQuantity();
-						transactionItemList.get(i).setQuantity(old_quantity + quantity);
-						isAdd = false;
-					}
-				}
-				if (isAdd) {
-					transactionItemList.add(item);
-				}
-				// calculate total and setText
-				float total;
-				if (currentDiscount != null) {
-					total = TransactionManager.getInstance().getTotal(transactionItemList, currentDiscount.getCode());
-				} else {
-					total = TransactionManager.getInstance().getTotal(transactionItemList, null);
-				}
+				// add transaction Item, a repeated scan increases its quantity
+				cart.add(product, quantity);
 
 				// modify UI
-				salesPanel.updateTable(TableDataUtils.getFormattedTransactionItemListForTable(transactionItemList),
+				salesPanel.updateTable(
+						TableDataUtils.getFormattedTransactionItemListForTable(cart.getTransactionItemList()),
 						TableDataUtils.getHeadersForTransactionItemTable());
-				salesPanel.setTotal(total);
+				salesPanel.setTotal(cart.getTotal());
 				// dispose dialog if no TransactionException
 				productDialog.dispose();
 				productDialog.setVisible(false);
@@ -214,6 +210,37 @@ public class SalesController implements ISalesDelegate {
 
 	}
 
+	/**
+	 * bar code read in continuous scan mode, it is looked up off the Event
+	 * Dispatch Thread
+	 */
+	@Override
+	public void onBarCodeScanned(String barCode) {
+		scanQueue.scan(barCode);
+	}
+
+	/**
+	 * Add the scans of a bar code to the cart, an unknown bar code or a
+	 * quantity which is not in stock is signalled with a beep so the cashier
+	 * can keep scanning
+	 * 
+	 * @param barCode
+	 * @param product
+	 * @param quantity
+	 */
+	private void onScanResolved(String barCode, Product product, int quantity) {
+		if (product == null || product.getQuantity() < cart.getQuantity(product.getIdentifier()) + quantity) {
+			Toolkit.getDefaultToolkit().beep();
+		} else {
+			cart.add(product, quantity);
+			salesPanel.updateTable(
+					TableDataUtils.getFormattedTransactionItemListForTable(cart.getTransactionItemList()),
+					TableDataUtils.getHeadersForTransactionItemTable());
+			salesPanel.setTotal(cart.getTotal());
+		}
+		salesPanel.setScanLatency(scanQueue.getLatencyHistogram().toString());
+	}
+
 	/**
 	 * after click checkout,this function will be invoked
 	 * 
@@ -221,7 +248,7 @@ public class SalesController implements ISalesDelegate {
 	@Override
 	public void checkOut() {
 		// generate a receipt
-		if (transactionItemList.size() <= 0) {
+		if (cart.isEmpty()) {
 			UIUtils.showMessageDialog(salesPanel, ViewConstants.StatusMessage.ERROR,
 					Messages.Error.Transaction.NO_PRODUCTS_ADDED_IN_CART, DialogType.ERROR_MESSAGE);
 			return;
@@ -235,9 +262,7 @@ public class SalesController implements ISalesDelegate {
 			protected boolean confirmClicked() {
 				if (salesPanel.checkOUTable()) {
 					try {
-						TransactionManager.getInstance().addTransaction(transactionItemList,
-								currentDiscount.getCode() == Constants.Data.Discount.Member.Public.CODE ? null
-										: currentDiscount.getCode(),
+						TransactionManager.getInstance().addTransaction(cart,
 								currentMember == null ? ViewConstants.Labels.STR_PUBLIC : currentMember.getIdentifier(),
 								Integer.valueOf(salesPanel.getTotal()[3]));
 						// dispose the confirm dialog
@@ -270,11 +295,11 @@ public class SalesController implements ISalesDelegate {
 	 */
 	private void createReceipt() {
 		ReceiptDialog receiptDlg;
-		String discountPercentage = currentDiscount == null ? ViewConstants.SalesPanel.NONE_DISCOUNT
-				: currentDiscount.getPercentage() + "%";
+		String discountPercentage = cart.getDiscount() == null ? ViewConstants.SalesPanel.NONE_DISCOUNT
+				: cart.getDiscount().getPercentage() + "%";
 		String memberId = currentMember == null ? ViewConstants.Labels.STR_PUBLIC : currentMember.getIdentifier();
-		receiptDlg = new ReceiptDialog((JFrame) SwingUtilities.getWindowAncestor(salesPanel), transactionItemList,
-				salesPanel.getTotal(), discountPercentage, memberId);
+		receiptDlg = new ReceiptDialog((JFrame) SwingUtilities.getWindowAncestor(salesPanel),
+				cart.getTransactionItemList(), salesPanel.getTotal(), discountPercentage, memberId);
 		receiptDlg.setVisible(true);
 	}
 
@@ -283,11 +308,11 @@ public class SalesController implements ISalesDelegate {
 	 */
 	private void clearSalesPanel() {
 		// clear transaction item list
-		transactionItemList.clear();
+		cart.clear();
 		// clear calculation part
 		salesPanel.clear();
 		// clear table update
-		salesPanel.updateTable(TableDataUtils.getFormattedTransactionItemListForTable(transactionItemList),
+		salesPanel.updateTable(TableDataUtils.getFormattedTransactionItemListForTable(cart.getTransactionItemList()),
 				TableDataUtils.getHeadersForTransactionItemTable());
 		// clear memberInfo part
 		refreshSalesData(ViewConstants.Labels.STR_PUBLIC, false);
@@ -302,26 +327,16 @@ public class SalesController implements ISalesDelegate {
 			ConfirmationDialog dlg = new ConfirmationDialog((JFrame) SwingUtilities.getWindowAncestor(salesPanel),
 					ViewConstants.Controller.SalesController.DELETE_CONFIRM,
 					ViewConstants.Controller.SalesController.DEL_TRAN_CONF
-							+ transactionItemList.get(row).getProduct().getName()) {
+							+ cart.getTransactionItemList().get(row).getProduct().getName()) {
 				private static final long serialVersionUID = 1L;
 
 				@Override
 				protected boolean confirmClicked() {
-					try {
-						transactionItemList.remove(row);
-						if (currentDiscount != null) {
-							salesPanel.setTotal(TransactionManager.getInstance().getTotal(transactionItemList,
-									currentDiscount.getCode()));
-						} else {
-							salesPanel.setTotal(TransactionManager.getInstance().getTotal(transactionItemList, null));
-						}
-						salesPanel.updateTable(
-								TableDataUtils.getFormattedTransactionItemListForTable(transactionItemList),
-								TableDataUtils.getHeadersForTransactionItemTable());
-					} catch (TransactionException e) {
-						UIUtils.showMessageDialog(salesPanel, ViewConstants.StatusMessage.WARNING, e.getMessage(),
-								DialogType.WARNING_MESSAGE);
-					}
+					cart.remove(row);
+					salesPanel.setTotal(cart.getTotal());
+					salesPanel.updateTable(
+							TableDataUtils.getFormattedTransactionItemListForTable(cart.getTransactionItemList()),
+							TableDataUtils.getHeadersForTransactionItemTable());
 					return true;
 				}
 			};
@@ -387,7 +402,8 @@ public class SalesController implements ISalesDelegate {
 	private void refreshSalesData(String memberCode, boolean isShowTip) {
 		// set member part
 		try {
-			Member member = MemberManager.getInstance().getMember(memberCode);
+			// A customer who is not a Member is found without an exception
+			Member member = MemberManager.getInstance().findMember(memberCode);
 			currentMember = member;
 			if (member != null) {
 				String loyaltyPoints = (member.getLoyaltyPoints() == -1) ? "0"
@@ -407,31 +423,19 @@ public class SalesController implements ISalesDelegate {
 			} else {
 				discount = DiscountManager.getInstance().getDiscount(ViewConstants.SalesPanel.MEMBER_OPTION_LABEL);
 			}
-			currentDiscount = discount;
+			cart.setDiscount(discount);
 			if (discount != null) {
 				salesPanel.onSetDiscount(discount.getCode(), discount.getPercentage() + "%");
-				salesPanel
-						.setTotal((TransactionManager.getInstance().getTotal(transactionItemList, discount.getCode())));
 			} else {
 				salesPanel.onSetDiscount(ViewConstants.Controller.SalesController.NO_DISCOUNT,
 						ViewConstants.Controller.SalesController.ZERO_DISCOUNT);
-				salesPanel.setTotal(TransactionManager.getInstance().getTotal(transactionItemList, null));
 			}
 		} catch (DiscountException e) {
+			cart.setDiscount(null);
 			salesPanel.onSetDiscount(ViewConstants.Controller.SalesController.NO_DISCOUNT,
 					ViewConstants.Controller.SalesController.ZERO_DISCOUNT);
-			try {
-				salesPanel.setTotal(TransactionManager.getInstance().getTotal(transactionItemList, null));
-			} catch (TransactionException e1) {
-				e1.printStackTrace();
-			}
-		} catch (TransactionException e) {
-			if (isShowTip) {
-				UIUtils.showMessageDialog(salesPanel, ViewConstants.StatusMessage.WARNING, e.getMessage(),
-						DialogType.WARNING_MESSAGE);
-			}
-			e.printStackTrace();
 		}
+		salesPanel.setTotal(cart.getTotal());
 	}
 	/***********************************************************/
 	// Private Methods
@@ -0,0 +1,192 @@
+package sg.edu.nus.iss.universitystore.data;
+
+import java.util.HashMap;
+
+import sg.edu.nus.iss.universitystore.model.Product;
+
+/**
+ * Index of Products by Bar Code. Bar Codes are digits, so they are encoded as
+ * a long and kept in an open addressing table with linear probing, a lookup
+ * needs no boxing and no hashing of Strings. Bar Codes which cannot be encoded
+ * are kept in a Hash Map.
+ * 
+ * @author Sanjay
+ *
+ */
+class BarCodeIndex {
+
+	/**
+	 * Key of an empty slot, never produced by {@link #encode(String)}
+	 */
+	private static final long EMPTY = 0;
+
+	/**
+	 * Bar Codes with more digits than this do not fit in a long
+	 */
+	private static final int MAX_DIGITS = 18;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private long[] keys;
+	private Product[] products;
+	private int size;
+
+	/**
+	 * Bar Codes which are not only digits or are too long to be encoded
+	 */
+	private HashMap<String, Product> otherBarCodes;
+
+	BarCodeIndex() {
+		keys = new long[INITIAL_CAPACITY];
+		products = new Product[INITIAL_CAPACITY];
+		otherBarCodes = new HashMap<>();
+	}
+
+	/**
+	 * Get the Product with the Bar Code
+	 * 
+	 * @param barCode
+	 * @return Product, null if not found
+	 */
+	Product get(String barCode) {
+		long key = encode(barCode);
+		if (key == EMPTY)
+			return otherBarCodes.get(barCode);
+
+		int mask = keys.length - 1;
+		for (int slot = hash(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+			if (keys[slot] == key)
+				return products[slot];
+		}
+		return null;
+	}
+
+	/**
+	 * Checks if a Product has the Bar Code
+	 * 
+	 * @param barCode
+	 * @return Boolean
+	 */
+	boolean contains(String barCode) {
+		return get(barCode) != null;
+	}
+
+	/**
+	 * Add a Product by its Bar Code, a Product with the same Bar Code is
+	 * replaced
+	 * 
+	 * @param product
+	 */
+	void put(Product product) {
+		long key = encode(product.getBarCode());
+		if (key == EMPTY) {
+			otherBarCodes.put(product.getBarCode(), product);
+			return;
+		}
+
+		if ((size + 1) * 2 > keys.length)
+			resize(keys.length * 2);
+
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (keys[slot] != EMPTY && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+
+		if (keys[slot] == EMPTY)
+			size++;
+		keys[slot] = key;
+		products[slot] = product;
+	}
+
+	/**
+	 * Remove the Product with the Bar Code
+	 * 
+	 * @param barCode
+	 */
+	void remove(String barCode) {
+		long key = encode(barCode);
+		if (key == EMPTY) {
+			otherBarCodes.remove(barCode);
+			return;
+		}
+
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (keys[slot] != key) {
+			if (keys[slot] == EMPTY)
+				return;
+			slot = (slot + 1) & mask;
+		}
+
+		// Shift back the following entries of the probe sequence so that no
+		// entry is cut off from its home slot by the gap
+		int gap = slot;
+		for (slot = (gap + 1) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+			int home = hash(keys[slot]) & mask;
+			if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+				keys[gap] = keys[slot];
+				products[gap] = products[slot];
+				gap = slot;
+			}
+		}
+		keys[gap] = EMPTY;
+		products[gap] = null;
+		size--;
+	}
+
+	/**
+	 * Encode a Bar Code of digits as a long. A leading one is added so that Bar
+	 * Codes which differ only in leading zeros have different keys.
+	 * 
+	 * @param barCode
+	 * @return Key, {@link #EMPTY} if the Bar Code cannot be encoded
+	 */
+	static long encode(String barCode) {
+		if (barCode == null || barCode.isEmpty() || barCode.length() > MAX_DIGITS)
+			return EMPTY;
+
+		long key = 1;
+		for (int i = 0; i < barCode.length(); i++) {
+			char digit = barCode.charAt(i);
+			if (digit < '0' || digit > '9')
+				return EMPTY;
+			key = key * 10 + (digit - '0');
+		}
+		return key;
+	}
+
+	private void resize(int capacity) {
+		long[] oldKeys = keys;
+		Product[] oldProducts = products;
+		keys = new long[capacity];
+		products = new Product[capacity];
+
+		int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] == EMPTY)
+				continue;
+
+			int slot = hash(oldKeys[i]) & mask;
+			while (keys[slot] != EMPTY) {
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = oldKeys[i];
+			products[slot] = oldProducts[i];
+		}
+	}
+
+	/**
+	 * Spread the bits of the key, consecutive Bar Codes would otherwise fill
+	 * consecutive slots
+	 * 
+	 * @param key
+	 * @return Hash
+	 */
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+}
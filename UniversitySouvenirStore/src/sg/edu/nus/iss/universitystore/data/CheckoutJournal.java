@@ -0,0 +1,350 @@
+package sg.edu.nus.iss.universitystore.data;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import sg.edu.nus.iss.universitystore.constants.Constants;
+
+/**
+ * Write ahead journal of checkouts. Before a checkout changes any other Data
+ * File its sale lines, the price of sale of each Product, the change of stock
+ * of each Product and the change of loyalty points of the Member are appended
+ * to the journal as one entry,
+ * followed by a commit line holding the number of lines of the entry. The
+ * entry is written with a single append which is forced to disk, so a
+ * checkout is committed once that append returns.
+ * 
+ * The stock and the loyalty points are journaled as changes, so a restock or
+ * an edit made while the checkout is applied is kept. Once the changes of
+ * stock, of loyalty points or of the sales rollup are applied and forced to
+ * disk an applied line is appended for them, and they are skipped when the
+ * entry is applied again.
+ * At startup the committed entries left in the journal are applied again and
+ * entries without their commit line, torn by a crash, are discarded. The
+ * journal is emptied whenever no committed entry is waiting to be applied.
+ * 
+ * @author Sanjay
+ *
+ */
+class CheckoutJournal {
+
+	/**
+	 * Types of the lines of an entry, each line starts with the Transaction
+	 * Identifier and the type
+	 */
+	private enum LineType {
+		SALE, PRICE, STOCK, LOYALTY, COMMIT, APPLIED, ROLLUP;
+	}
+
+	/**
+	 * Checkout held by an entry of the journal
+	 */
+	static final class Entry {
+
+		private final int transactionId;
+
+		/**
+		 * Lines of the Transaction log
+		 */
+		private final ArrayList<String> saleLines = new ArrayList<>();
+
+		/**
+		 * Price of sale of each Product by Product Identifier, the log does
+		 * not keep it
+		 */
+		private final LinkedHashMap<String, Double> prices = new LinkedHashMap<>();
+
+		/**
+		 * Change of quantity of each Product by Product Identifier
+		 */
+		private final LinkedHashMap<String, Integer> stock = new LinkedHashMap<>();
+
+		/**
+		 * Change of loyalty points of each Member by Member Identifier
+		 */
+		private final LinkedHashMap<String, Integer> loyaltyPoints = new LinkedHashMap<>();
+
+		/**
+		 * Whether the changes of stock, of loyalty points and of the sales
+		 * rollup have been applied
+		 */
+		private boolean stockApplied;
+		private boolean loyaltyPointsApplied;
+		private boolean rollupApplied;
+
+		Entry(int transactionId) {
+			this.transactionId = transactionId;
+		}
+
+		int getTransactionId() {
+			return transactionId;
+		}
+
+		ArrayList<String> getSaleLines() {
+			return saleLines;
+		}
+
+		LinkedHashMap<String, Double> getPrices() {
+			return prices;
+		}
+
+		LinkedHashMap<String, Integer> getStock() {
+			return stock;
+		}
+
+		LinkedHashMap<String, Integer> getLoyaltyPoints() {
+			return loyaltyPoints;
+		}
+
+		boolean isStockApplied() {
+			return stockApplied;
+		}
+
+		boolean isLoyaltyPointsApplied() {
+			return loyaltyPointsApplied;
+		}
+
+		boolean isRollupApplied() {
+			return rollupApplied;
+		}
+
+		/**
+		 * Add the lines of a record of the Transaction log
+		 * 
+		 * @param record
+		 */
+		void addSale(String record) {
+			for (String line : record.split(Constants.Common.NEW_LINE)) {
+				if (!line.isEmpty())
+					saleLines.add(line);
+			}
+		}
+
+		/**
+		 * Set the price of sale of a Product
+		 * 
+		 * @param productId
+		 * @param price
+		 */
+		void setPrice(String productId, double price) {
+			prices.put(productId, price);
+		}
+
+		/**
+		 * Add a change of quantity of a Product
+		 * 
+		 * @param productId
+		 * @param change
+		 */
+		void addStock(String productId, int change) {
+			stock.merge(productId, change, Integer::sum);
+		}
+
+		/**
+		 * Add a change of loyalty points of a Member
+		 * 
+		 * @param memberId
+		 * @param change
+		 */
+		void addLoyaltyPoints(String memberId, int change) {
+			loyaltyPoints.merge(memberId, change, Integer::sum);
+		}
+
+		/**
+		 * Lines of the entry followed by its commit line
+		 * 
+		 * @return Lines of the journal
+		 */
+		private String toJournal() {
+			StringBuilder content = new StringBuilder();
+			int lines = 0;
+			for (String saleLine : saleLines) {
+				appendLine(content, LineType.SALE, saleLine);
+				lines++;
+			}
+			for (Map.Entry<String, Double> productPrice : prices.entrySet()) {
+				appendLine(content, LineType.PRICE,
+						productPrice.getKey() + Constants.Data.FILE_SEPTR + productPrice.getValue());
+				lines++;
+			}
+			for (Map.Entry<String, Integer> productStock : stock.entrySet()) {
+				appendLine(content, LineType.STOCK,
+						productStock.getKey() + Constants.Data.FILE_SEPTR + productStock.getValue());
+				lines++;
+			}
+			for (Map.Entry<String, Integer> memberPoints : loyaltyPoints.entrySet()) {
+				appendLine(content, LineType.LOYALTY,
+						memberPoints.getKey() + Constants.Data.FILE_SEPTR + memberPoints.getValue());
+				lines++;
+			}
+			appendLine(content, LineType.COMMIT, String.valueOf(lines));
+			return content.toString();
+		}
+
+		private void appendLine(StringBuilder content, LineType type, Object value) {
+			content.append(transactionId).append(Constants.Data.FILE_SEPTR).append(type)
+					.append(Constants.Data.FILE_SEPTR).append(value).append(Constants.Common.NEW_LINE);
+		}
+	}
+
+	private DataFile<String> journalData;
+
+	/**
+	 * Number of entries which have been committed and not yet applied
+	 */
+	private int pendingEntries;
+
+	CheckoutJournal() throws IOException {
+		journalData = new DataFile<>(Constants.Data.FileName.CHECKOUT_JOURNAL_DAT);
+		journalData.setDurability(Constants.Data.DURABILITY.FSYNC);
+	}
+
+	/**
+	 * Commit an entry, it is written to disk before this returns
+	 * 
+	 * @param entry
+	 * @return Boolean
+	 * @throws IOException
+	 */
+	synchronized boolean commit(Entry entry) throws IOException {
+		boolean status = journalData.add(entry.toJournal());
+		pendingEntries++;
+		return status;
+	}
+
+	/**
+	 * Mark the changes of stock of a committed entry as applied, the mark is
+	 * written to disk before this returns. The changes must be on disk first.
+	 * 
+	 * @param entry
+	 * @throws IOException
+	 */
+	synchronized void stockApplied(Entry entry) throws IOException {
+		journalData.add(getAppliedLine(entry, LineType.STOCK));
+		entry.stockApplied = true;
+	}
+
+	/**
+	 * Mark the changes of loyalty points of a committed entry as applied, the
+	 * mark is written to disk before this returns. The changes must be on disk
+	 * first.
+	 * 
+	 * @param entry
+	 * @throws IOException
+	 */
+	synchronized void loyaltyPointsApplied(Entry entry) throws IOException {
+		journalData.add(getAppliedLine(entry, LineType.LOYALTY));
+		entry.loyaltyPointsApplied = true;
+	}
+
+	/**
+	 * Mark the sales of a committed entry as added to the sales rollup, the
+	 * mark is written to disk before this returns. The rollup must be on disk
+	 * first.
+	 * 
+	 * @param entry
+	 * @throws IOException
+	 */
+	synchronized void rollupApplied(Entry entry) throws IOException {
+		journalData.add(getAppliedLine(entry, LineType.ROLLUP));
+		entry.rollupApplied = true;
+	}
+
+	/**
+	 * Mark a committed entry as done with, the journal is emptied if no other
+	 * entry is waiting to be applied
+	 * 
+	 * @throws IOException
+	 */
+	synchronized void applied() throws IOException {
+		pendingEntries = Math.max(0, pendingEntries - 1);
+		if (pendingEntries == 0)
+			journalData.deleteAll();
+	}
+
+	/**
+	 * Get the committed entries of the journal in the order they were
+	 * committed, along with the parts of them which were applied. Lines of an
+	 * entry without a matching commit line are discarded, the journal is
+	 * emptied if it has no committed entry so that they are not taken for lines
+	 * of a later entry.
+	 * 
+	 * @return Entries
+	 * @throws IOException
+	 */
+	synchronized ArrayList<Entry> getCommittedEntries() throws IOException {
+		LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>();
+		LinkedHashMap<Integer, ArrayList<String[]>> openEntries = new LinkedHashMap<>();
+
+		journalData.forEach(line -> {
+			String[] lineSplt = line.toString().split(Constants.Data.FILE_SEPTR, 3);
+			try {
+				int transactionId = Integer.parseInt(lineSplt[0]);
+				LineType type = LineType.valueOf(lineSplt[1]);
+				if (type == LineType.APPLIED) {
+					Entry entry = entries.get(transactionId);
+					if (entry != null && LineType.valueOf(lineSplt[2]) == LineType.STOCK)
+						entry.stockApplied = true;
+					else if (entry != null && LineType.valueOf(lineSplt[2]) == LineType.LOYALTY)
+						entry.loyaltyPointsApplied = true;
+					else if (entry != null && LineType.valueOf(lineSplt[2]) == LineType.ROLLUP)
+						entry.rollupApplied = true;
+					return;
+				}
+				if (type != LineType.COMMIT) {
+					openEntries.computeIfAbsent(transactionId, id -> new ArrayList<>()).add(lineSplt);
+					return;
+				}
+
+				ArrayList<String[]> lines = openEntries.remove(transactionId);
+				int lineCount = Integer.parseInt(lineSplt[2]);
+				if (lineCount == 0 || (lines != null && lines.size() == lineCount))
+					entries.put(transactionId, parseEntry(transactionId, lines == null ? new ArrayList<>() : lines));
+			} catch (IndexOutOfBoundsException | IllegalArgumentException exp) {
+				// Skip lines torn by a crash
+			}
+		});
+
+		pendingEntries = entries.size();
+		if (entries.isEmpty())
+			journalData.deleteAll();
+		return new ArrayList<>(entries.values());
+	}
+
+	private static String getAppliedLine(Entry entry, LineType part) {
+		StringBuilder content = new StringBuilder();
+		entry.appendLine(content, LineType.APPLIED, part);
+		return content.toString();
+	}
+
+	private static Entry parseEntry(int transactionId, ArrayList<String[]> lines) {
+		Entry entry = new Entry(transactionId);
+		for (String[] lineSplt : lines) {
+			switch (LineType.valueOf(lineSplt[1])) {
+			case SALE:
+				entry.saleLines.add(lineSplt[2]);
+				break;
+			case PRICE:
+				int priceSeptr = lineSplt[2].lastIndexOf(Constants.Data.FILE_SEPTR);
+				entry.setPrice(lineSplt[2].substring(0, priceSeptr),
+						Double.parseDouble(lineSplt[2].substring(priceSeptr + 1)));
+				break;
+			case STOCK:
+				int stockSeptr = lineSplt[2].lastIndexOf(Constants.Data.FILE_SEPTR);
+				entry.addStock(lineSplt[2].substring(0, stockSeptr),
+						Integer.parseInt(lineSplt[2].substring(stockSeptr + 1)));
+				break;
+			case LOYALTY:
+				int loyaltySeptr = lineSplt[2].lastIndexOf(Constants.Data.FILE_SEPTR);
+				entry.addLoyaltyPoints(lineSplt[2].substring(0, loyaltySeptr),
+						Integer.parseInt(lineSplt[2].substring(loyaltySeptr + 1)));
+				break;
+			default:
+				break;
+			}
+		}
+		return entry;
+	}
+}
@@ -1,13 +1,33 @@
 package sg.edu.nus.iss.universitystore.data;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
 
 import sg.edu.nus.iss.universitystore.constants.Constants;
 import sg.edu.nus.iss.universitystore.test.InitializeTest;
@@ -15,17 +35,64 @@ import sg.edu.nus.iss.universitystore.test.InitializeTest;
 /**
  * Data Access Object Implementation
  * 
+ * The Data File is an append only log. An entry is added by appending it and
+ * deleted by appending a tombstone for it, so an update (delete and add) is two
+ * appends. Readers see the entries which have not been deleted in the order
+ * they were last added. When the share of deleted entries in the file passes
+ * {@link Constants.Data#COMPACTION_GARBAGE_RATIO} the file is rewritten with
+ * only the live entries on a background thread.
+ * 
+ * A Data File may be shared by several threads. Reads hold the read lock of
+ * the file and run concurrently, writes and compaction hold its write lock.
+ * 
  * @author Sanjay
- *
+ * 
  * @param <T>
  */
 class DataFile<T> {
 
+	/**
+	 * Single background thread shared by all Data Files for compaction
+	 */
+	private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "DataFile-Compactor");
+		thread.setDaemon(true);
+		return thread;
+	});
+
 	private String file;
 
+	/**
+	 * Read lock for reads of the file, write lock for appends and rewrites
+	 */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Durability applied to appended records
+	 */
+	private Constants.Data.DURABILITY durability;
+
+	/**
+	 * Whether the file ends with a new line, null until it has been checked
+	 */
+	private Boolean endsWithNewLine;
+
+	/**
+	 * Number of live entries and of dead lines (tombstones and the entries they
+	 * delete) in the file, unknown (-1) until the file has been read once.
+	 * Concurrent reads of the file may set them, always to the same values.
+	 */
+	private volatile long liveLines = -1, garbageLines = -1;
+
+	/**
+	 * Whether a compaction has been submitted and not yet run
+	 */
+	private final AtomicBoolean compactionPending = new AtomicBoolean();
+
 	DataFile(String fileName) throws FileNotFoundException, IOException {
 		String filePath = InitializeTest.isJUnit() ? Constants.Data.TEST_FILE_PATH : Constants.Data.FILE_PATH;
 		this.file = filePath + fileName + Constants.Data.FILE_EXT;
+		this.durability = Constants.Data.APPEND_DURABILITY;
 		initialize();
 
 	}
@@ -43,36 +110,106 @@ class DataFile<T> {
 	}
 
 	/**
-	 * Create an entry to Data File
+	 * Create an entry to Data File, the entry is appended to the end of the
+	 * file without reading the existing content
 	 * 
 	 * @param t
 	 * @return Boolean
 	 * @throws IOException
 	 */
 	public boolean add(T t) throws IOException {
-		String content = getStringFromFile(file);
-		// Add new content to file
-		return writeStringToFile(content + t.toString(), file);
+		lock.writeLock().lock();
+		try {
+			boolean status = append(t.toString());
+			if (liveLines >= 0)
+				liveLines++;
+			return status;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Set the Durability used for appends to this Data File
+	 * 
+	 * @param durability
+	 */
+	void setDurability(Constants.Data.DURABILITY durability) {
+		this.durability = durability;
 	}
 
 	/**
-	 * Delete an entry from the Data File
+	 * Force the records written to the Data File to disk, whatever the
+	 * Durability used for its appends
+	 * 
+	 * @throws IOException
+	 */
+	void force() throws IOException {
+		lock.readLock().lock();
+		try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.WRITE)) {
+			channel.force(false);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Delete an entry from the Data File by appending a tombstone for it
 	 * 
 	 * @param id
 	 * @throws IOException
 	 */
 	public boolean delete(String id) throws IOException {
-		String[] contents = getAll();
-		StringBuffer newContent = new StringBuffer();
-		for (String line : contents) {
-			if (id.equals(line))
-				continue;
-			newContent.append(line);
-			newContent.append(Constants.Common.NEW_LINE);
+		lock.writeLock().lock();
+		try {
+			boolean status = append(Constants.Data.TOMBSTONE + id);
+			if (garbageLines >= 0) {
+				// The tombstone and the entry it deletes
+				garbageLines += 2;
+				liveLines = Math.max(0, liveLines - 1);
+				scheduleCompaction();
+			}
+			return status;
+		} finally {
+			lock.writeLock().unlock();
 		}
+	}
 
-		return writeStringToFile(newContent.toString(), file);
+	/**
+	 * Delete entries and add new ones with a single append, the tombstones are
+	 * written before the new entries so an entry can be replaced by an equal
+	 * one
+	 * 
+	 * @param ids
+	 *            Entries to delete
+	 * @param ct
+	 *            Entries to add
+	 * @return Boolean
+	 * @throws IOException
+	 */
+	public boolean update(Collection<String> ids, Collection<T> ct) throws IOException {
+		lock.writeLock().lock();
+		try {
+			StringBuilder content = new StringBuilder();
+			for (String id : ids) {
+				content.append(Constants.Data.TOMBSTONE).append(id).append(Constants.Common.NEW_LINE);
+			}
+			for (T t : ct) {
+				content.append(t).append(Constants.Common.NEW_LINE);
+			}
+			if (content.length() == 0)
+				return true;
 
+			boolean status = append(content.toString());
+			if (garbageLines >= 0) {
+				garbageLines += 2 * ids.size();
+				liveLines = Math.max(0, liveLines - ids.size()) + ct.size();
+				scheduleCompaction();
+			}
+			return status;
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	/**
@@ -82,15 +219,25 @@ class DataFile<T> {
 	 * @throws IOException
 	 */
 	public boolean addAll(Collection<T> ct) throws IOException {
-		Iterator<T> iterator = ct.iterator();
-		StringBuffer content = new StringBuffer();
+		lock.writeLock().lock();
+		try {
+			Iterator<T> iterator = ct.iterator();
+			StringBuffer content = new StringBuffer();
 
-		while (iterator.hasNext()) {
-			content.append(iterator.next());
-			content.append(Constants.Common.NEW_LINE);
-		}
+			while (iterator.hasNext()) {
+				content.append(iterator.next());
+				content.append(Constants.Common.NEW_LINE);
+			}
 
-		return writeStringToFile(content.toString(), file);
+			boolean status = writeStringToFile(content.toString(), file);
+			if (status) {
+				liveLines = ct.size();
+				garbageLines = 0;
+			}
+			return status;
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	/**
@@ -99,17 +246,258 @@ class DataFile<T> {
 	 * @throws FileNotFoundException
 	 */
 	public boolean deleteAll() throws FileNotFoundException {
-		return writeStringToFile(Constants.Common.EMPTY_STR, file);
+		lock.writeLock().lock();
+		try {
+			boolean status = writeStringToFile(Constants.Common.EMPTY_STR, file);
+			if (status)
+				liveLines = garbageLines = 0;
+			return status;
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	/**
-	 * Get all content of Data File
+	 * Get all live content of Data File
 	 * 
 	 * @return
 	 * @throws IOException
 	 */
 	public String[] getAll() throws IOException {
-		return getStringFromFile(file).split(Constants.Common.NEW_LINE);
+		lock.readLock().lock();
+		try {
+			ArrayList<String> liveContent = getLiveContent();
+			scheduleCompaction();
+			return liveContent.toArray(new String[liveContent.size()]);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Iterate over all live records of the Data File. If the file has no
+	 * deleted entries the records are views over the bytes of the file, which
+	 * are only valid during the call to the consumer.
+	 * 
+	 * @param consumer
+	 * @throws IOException
+	 */
+	public void forEach(Consumer<CharSequence> consumer) throws IOException {
+		lock.readLock().lock();
+		try {
+			forEachWhile(record -> {
+				consumer.accept(record);
+				return true;
+			});
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Iterate over the live records of the Data File until the consumer returns
+	 * false. If the file has no deleted entries it is read lazily, so nothing
+	 * after the record which stopped the iteration is read.
+	 * 
+	 * @param consumer
+	 * @return Boolean, false if the consumer stopped the iteration
+	 * @throws IOException
+	 */
+	public boolean forEachWhile(Predicate<CharSequence> consumer) throws IOException {
+		lock.readLock().lock();
+		try {
+			if (garbageLines != 0) {
+				ArrayList<String> liveContent = getLiveContent();
+				scheduleCompaction();
+				for (String line : liveContent) {
+					if (!consumer.test(line))
+						return false;
+				}
+				return true;
+			}
+
+			return readRecords(record -> record.length() == 0 || consumer.test(record));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Iterate over the records appended between the byte offsets until the
+	 * consumer returns false. The records are read as they were appended,
+	 * tombstones are not applied, so it is meant for logs which are only
+	 * appended to. Records are views over the bytes of the file.
+	 * 
+	 * @param from
+	 *            Offset of the start of a record, as returned by
+	 *            {@link #size()} before it was added
+	 * @param to
+	 *            Offset after the end of the last record, beyond the end of
+	 *            the file to read up to the end
+	 * @param consumer
+	 * @return Boolean, false if the consumer stopped the iteration
+	 * @throws IOException
+	 */
+	public boolean forEachWhile(long from, long to, Predicate<CharSequence> consumer)
+			throws IOException {
+		lock.readLock().lock();
+		try {
+			return readRecords(from, to, record -> record.length() == 0 || consumer.test(record));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Iterate over all records of the Data File with the byte offset at which
+	 * each starts. The records are read as they were appended, tombstones are
+	 * not applied.
+	 * 
+	 * @param consumer
+	 * @throws IOException
+	 */
+	public void forEachWithPosition(ObjLongConsumer<CharSequence> consumer) throws IOException {
+		lock.readLock().lock();
+		try {
+			readRecords(record -> {
+				if (record.length() != 0)
+					consumer.accept(record, record.getPosition());
+				return true;
+			});
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the size of the Data File in bytes, which is the offset at which the
+	 * next record is added
+	 * 
+	 * @return Size
+	 * @throws IOException
+	 */
+	public long size() throws IOException {
+		lock.readLock().lock();
+		try {
+			return Files.size(Paths.get(file));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Find the first live record of the Data File for which the mapper returns
+	 * a value. The file is read only up to that record.
+	 * 
+	 * @param mapper
+	 * @return Value of the mapper, null if no record matched
+	 * @throws IOException
+	 */
+	public <R> R findFirst(Function<CharSequence, R> mapper) throws IOException {
+		lock.readLock().lock();
+		try {
+			ArrayList<R> found = new ArrayList<>(1);
+			forEachWhile(record -> {
+				R result = mapper.apply(record);
+				if (result == null)
+					return true;
+
+				found.add(result);
+				return false;
+			});
+			return found.isEmpty() ? null : found.get(0);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the last live record of the Data File. Only the tail of the file is
+	 * read, the whole file is folded only if the last line is a tombstone.
+	 * 
+	 * @return Record, null if the file has no records
+	 * @throws IOException
+	 */
+	public String getLast() throws IOException {
+		lock.readLock().lock();
+		try {
+			String last = readLastLine();
+			if (last == null || !last.startsWith(Constants.Data.TOMBSTONE))
+				return last;
+
+			ArrayList<String> liveContent = getLiveContent();
+			scheduleCompaction();
+			return liveContent.isEmpty() ? null : liveContent.get(liveContent.size() - 1);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Checks if the record starts with the prefix, without decoding records
+	 * which are views over the file
+	 * 
+	 * @param record
+	 * @param prefix
+	 * @return Boolean
+	 */
+	static boolean startsWith(CharSequence record, String prefix) {
+		if (record instanceof Record)
+			return ((Record) record).startsWith(prefix);
+
+		return record.toString().startsWith(prefix);
+	}
+
+	/**
+	 * Get the names of the Data Files whose names start with the prefix
+	 * 
+	 * @param prefix
+	 * @return File Names without the extension
+	 */
+	static ArrayList<String> getFileNames(String prefix) {
+		String filePath = InitializeTest.isJUnit() ? Constants.Data.TEST_FILE_PATH : Constants.Data.FILE_PATH;
+		ArrayList<String> fileNames = new ArrayList<>();
+		File[] files = new File(filePath).listFiles();
+		if (files == null)
+			return fileNames;
+
+		for (File dataFile : files) {
+			String fileName = dataFile.getName();
+			if (dataFile.isFile() && fileName.startsWith(prefix) && fileName.endsWith(Constants.Data.FILE_EXT))
+				fileNames.add(fileName.substring(0, fileName.length() - Constants.Data.FILE_EXT.length()));
+		}
+		return fileNames;
+	}
+
+	/**
+	 * Rewrite the Data File with only the live entries
+	 * 
+	 * @return Boolean
+	 * @throws IOException
+	 */
+	public boolean compact() throws IOException {
+		lock.writeLock().lock();
+		try {
+			compactionPending.set(false);
+			if (!exists(file))
+				return false;
+
+			ArrayList<String> liveContent = getLiveContent();
+			StringBuffer content = new StringBuffer();
+			for (String line : liveContent) {
+				content.append(line);
+				content.append(Constants.Common.NEW_LINE);
+			}
+
+			// The counts are kept if the rewrite fails, so the file is still
+			// read with its tombstones and compacted again later
+			boolean status = writeStringToFile(content.toString(), file);
+			if (status)
+				garbageLines = 0;
+			return status;
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	/**
@@ -118,7 +506,71 @@ class DataFile<T> {
 	 * @return
 	 */
 	public boolean delete() {
-		return (new File(file)).delete();
+		lock.writeLock().lock();
+		try {
+			return (new File(file)).delete();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Fold the lines of the log into the live entries. A tombstone removes all
+	 * earlier occurrences of the entry it names. Also updates the count of live
+	 * and dead lines.
+	 * 
+	 * @return Live entries in the order they were last added
+	 * @throws IOException
+	 */
+	private ArrayList<String> getLiveContent() throws IOException {
+		LinkedHashMap<String, Integer> entries = new LinkedHashMap<>();
+		long[] garbage = { 0 };
+
+		readRecords(record -> {
+			if (record.length() == 0)
+				return true;
+
+			if (record.startsWith(Constants.Data.TOMBSTONE)) {
+				Integer deleted = entries
+						.remove(record.subSequence(Constants.Data.TOMBSTONE.length(), record.length()).toString());
+				garbage[0] += 1 + (deleted == null ? 0 : deleted);
+			} else {
+				entries.merge(record.toString(), 1, Integer::sum);
+			}
+			return true;
+		});
+
+		ArrayList<String> liveContent = new ArrayList<>(entries.size());
+		for (Map.Entry<String, Integer> entry : entries.entrySet()) {
+			for (int i = 0; i < entry.getValue(); i++) {
+				liveContent.add(entry.getKey());
+			}
+		}
+
+		liveLines = liveContent.size();
+		garbageLines = garbage[0];
+		return liveContent;
+	}
+
+	/**
+	 * Submit a compaction to the background thread if the dead lines have
+	 * passed the configured ratio
+	 */
+	private void scheduleCompaction() {
+		long totalLines = liveLines + garbageLines;
+		if (garbageLines < 0 || totalLines < Constants.Data.COMPACTION_MIN_LINES
+				|| garbageLines < totalLines * Constants.Data.COMPACTION_GARBAGE_RATIO
+				|| !compactionPending.compareAndSet(false, true))
+			return;
+
+		COMPACTOR.execute(() -> {
+			try {
+				compact();
+			} catch (IOException ioExp) {
+				// The log remains valid, compaction will be retried later
+				ioExp.printStackTrace();
+			}
+		});
 	}
 
 	/**
@@ -143,7 +595,9 @@ class DataFile<T> {
 	}
 
 	/**
-	 * Write String Content to File
+	 * Write String Content to File. The content is written to a temporary file
+	 * which then replaces the Data File so that a failed write never leaves a
+	 * partial file behind.
 	 * 
 	 * @param stringToWrite
 	 * @param file
@@ -151,42 +605,344 @@ class DataFile<T> {
 	 */
 	private boolean writeStringToFile(String stringToWrite, String file) throws FileNotFoundException {
 		boolean status = false;
+		Path path = Paths.get(file);
+		Path tempPath = path.resolveSibling(Constants.Data.TEMP_FILE_PREFIX + path.getFileName());
 		PrintWriter writeToFile = null;
 		try {
-			writeToFile = new PrintWriter(file);
+			writeToFile = new PrintWriter(tempPath.toFile());
 			writeToFile.print(stringToWrite);
-			status = true;
+			status = !writeToFile.checkError();
 		} finally {
 			writeToFile.close();
 		}
+
+		if (status) {
+			try {
+				replace(tempPath, path);
+			} catch (IOException ioExp) {
+				throw new FileNotFoundException(ioExp.getMessage());
+			}
+			endsWithNewLine = stringToWrite.isEmpty() || stringToWrite.endsWith(Constants.Common.NEW_LINE);
+		}
 		return status;
 	}
 
 	/**
-	 * Read Content from file into a string
+	 * Replace the target file with the source file, atomically where the file
+	 * system supports it
 	 * 
-	 * @param file
-	 * @return String Content
+	 * @param source
+	 * @param target
 	 * @throws IOException
 	 */
-	private String getStringFromFile(String file) throws IOException {
-		BufferedReader br = null;
-		StringBuilder sb = null;
-
+	private void replace(Path source, Path target) throws IOException {
 		try {
-			br = new BufferedReader(new FileReader(file));
-			sb = new StringBuilder();
-			String line = br.readLine();
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException atomicMoveExp) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
 
-			while (line != null) {
-				sb.append(line);
-				sb.append(Constants.Common.NEW_LINE);
-				line = br.readLine();
+	/**
+	 * Read the records of the file until the consumer returns false
+	 * 
+	 * @param consumer
+	 * @return Boolean, false if the consumer stopped the iteration
+	 * @throws IOException
+	 */
+	private boolean readRecords(Predicate<Record> consumer) throws IOException {
+		return readRecords(0, Long.MAX_VALUE, consumer);
+	}
+
+	/**
+	 * Read the records between the byte offsets until the consumer returns
+	 * false. The range is read in chunks of
+	 * {@link Constants.Data#READ_BUFFER_BYTES}, or of
+	 * {@link Constants.Data#LARGE_READ_BUFFER_BYTES} for ranges at least that
+	 * long, and only up to the record which stopped the iteration. The file is
+	 * not memory mapped, a mapping is only released by the garbage collector
+	 * and keeps the file from being replaced on Windows.
+	 * 
+	 * @param from
+	 *            Offset of the start of a record
+	 * @param to
+	 *            Offset after the end of the last record, beyond the end of
+	 *            the file to read up to the end
+	 * @param consumer
+	 * @return Boolean, false if the consumer stopped the iteration
+	 * @throws IOException
+	 */
+	private boolean readRecords(long from, long to, Predicate<Record> consumer) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+			long remaining = Math.min(to, channel.size()) - from;
+			if (remaining <= 0)
+				return true;
+
+			channel.position(from);
+			long bufferStart = from;
+			ByteBuffer buffer = ByteBuffer.allocate(remaining >= Constants.Data.LARGE_READ_BUFFER_BYTES
+					? Constants.Data.LARGE_READ_BUFFER_BYTES : Constants.Data.READ_BUFFER_BYTES);
+			while (true) {
+				if (buffer.remaining() > remaining)
+					buffer.limit(buffer.position() + (int) remaining);
+				int read = channel.read(buffer);
+				if (read > 0)
+					remaining -= read;
+				boolean endOfFile = read < 0 || remaining == 0;
+				buffer.flip();
+
+				// Only complete records are split, the rest waits for the next
+				// chunk unless the end of the range has been reached
+				int end = endOfFile ? buffer.limit() : lastIndexOf(buffer, (byte) '\n') + 1;
+				if (end > 0) {
+					ByteBuffer records = buffer.duplicate();
+					records.limit(end);
+					if (!forEachRecord(records, bufferStart, consumer))
+						return false;
+				}
+
+				if (endOfFile)
+					return true;
+
+				buffer.position(end);
+				if (end == 0 && buffer.limit() == buffer.capacity()) {
+					// Record is longer than the buffer
+					ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+					larger.put(buffer);
+					buffer = larger;
+				} else {
+					buffer.compact();
+					bufferStart += end;
+				}
 			}
-		} finally {
-			br.close();
 		}
-		return sb.toString();
+	}
+
+	/**
+	 * Read the last non empty line of the file backwards from its end in chunks
+	 * of {@link Constants.Data#READ_BUFFER_BYTES}, the chunk is doubled until it
+	 * holds the whole line
+	 * 
+	 * @return Line, null if the file has no non empty lines
+	 * @throws IOException
+	 */
+	private String readLastLine() throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+			long size = channel.size();
+			for (long chunk = Constants.Data.READ_BUFFER_BYTES;; chunk *= 2) {
+				long from = Math.max(0, size - chunk);
+				ByteBuffer buffer = ByteBuffer.allocate((int) (size - from));
+				while (buffer.hasRemaining()) {
+					if (channel.read(buffer, from + buffer.position()) < 0)
+						break;
+				}
+				buffer.flip();
+
+				// Skip the new lines and carriage returns at the end
+				int end = buffer.limit();
+				while (end > 0 && (buffer.get(end - 1) == '\n' || buffer.get(end - 1) == '\r')) {
+					end--;
+				}
+				if (end == 0 && from == 0)
+					return null;
+
+				buffer.limit(end);
+				int start = lastIndexOf(buffer, (byte) '\n') + 1;
+				if (start > 0 || from == 0) {
+					byte[] bytes = new byte[end - start];
+					buffer.position(start);
+					buffer.get(bytes);
+					return new String(bytes, Charset.defaultCharset());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Index of the last occurrence of the byte in the buffer
+	 * 
+	 * @param buffer
+	 * @param value
+	 * @return Index, -1 if not found
+	 */
+	private static int lastIndexOf(ByteBuffer buffer, byte value) {
+		for (int i = buffer.limit() - 1; i >= buffer.position(); i--) {
+			if (buffer.get(i) == value)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Split the buffer into records on new lines until the consumer returns
+	 * false, a carriage return before the new line is not part of the record
+	 * 
+	 * @param buffer
+	 * @param bufferStart
+	 *            Offset in the file of the start of the buffer
+	 * @param consumer
+	 * @return Boolean, false if the consumer stopped the iteration
+	 */
+	private static boolean forEachRecord(ByteBuffer buffer, long bufferStart, Predicate<Record> consumer) {
+		int start = buffer.position();
+		int limit = buffer.limit();
+		boolean ascii = true;
+
+		for (int i = start; i <= limit; i++) {
+			if (i < limit && buffer.get(i) != '\n') {
+				ascii &= buffer.get(i) >= 0;
+				continue;
+			}
+
+			int end = (i > start && buffer.get(i - 1) == '\r') ? i - 1 : i;
+			if (i < limit || end > start) {
+				if (!consumer.test(new Record(buffer, bufferStart, start, end - start, ascii)))
+					return false;
+			}
+			start = i + 1;
+			ascii = true;
+		}
+		return true;
+	}
+
+	/**
+	 * Append a record to the end of the file through a File Channel opened in
+	 * append mode. A new line is added before the record if the file does not
+	 * end with one and after the record so that the next append starts on a
+	 * new line.
+	 * 
+	 * @param record
+	 * @return Boolean
+	 * @throws IOException
+	 */
+	private boolean append(String record) throws IOException {
+		Path path = Paths.get(file);
+		if (endsWithNewLine == null) {
+			endsWithNewLine = endsWithNewLine(path);
+		}
+
+		StringBuilder content = new StringBuilder(record.length() + 2);
+		if (!endsWithNewLine)
+			content.append(Constants.Common.NEW_LINE);
+		content.append(record);
+		if (!record.endsWith(Constants.Common.NEW_LINE))
+			content.append(Constants.Common.NEW_LINE);
+
+		ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(Charset.defaultCharset()));
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			if (durability == Constants.Data.DURABILITY.FSYNC) {
+				channel.force(false);
+			}
+		}
+		endsWithNewLine = true;
+
+		return true;
+	}
+
+	/**
+	 * Checks if the last byte of the file is a new line, an empty file is
+	 * treated as ending with a new line
+	 * 
+	 * @param path
+	 * @return Boolean
+	 * @throws IOException
+	 */
+	private boolean endsWithNewLine(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size == 0)
+				return true;
+
+			ByteBuffer lastByte = ByteBuffer.allocate(1);
+			channel.read(lastByte, size - 1);
+			return lastByte.get(0) == '\n';
+		}
+	}
+
+	/**
+	 * A record of the Data File as a view over the bytes of the file. Records
+	 * with only ASCII characters are read directly from the buffer, other
+	 * records are decoded on first use.
+	 */
+	static final class Record implements CharSequence {
+
+		private final ByteBuffer buffer;
+		/**
+		 * Offset in the file of the start of the buffer
+		 */
+		private final long bufferStart;
+		private final int offset;
+		private final int length;
+		private final boolean ascii;
+		private String decoded;
+
+		private Record(ByteBuffer buffer, long bufferStart, int offset, int length, boolean ascii) {
+			this.buffer = buffer;
+			this.bufferStart = bufferStart;
+			this.offset = offset;
+			this.length = length;
+			this.ascii = ascii;
+		}
+
+		@Override
+		public int length() {
+			return ascii ? length : toString().length();
+		}
+
+		@Override
+		public char charAt(int index) {
+			return ascii ? (char) buffer.get(offset + index) : toString().charAt(index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return ascii ? new Record(buffer, bufferStart, offset + start, end - start, true)
+					: toString().subSequence(start, end);
+		}
+
+		/**
+		 * Offset in the file of the start of the record
+		 * 
+		 * @return Offset
+		 */
+		long getPosition() {
+			return bufferStart + offset;
+		}
+
+		/**
+		 * Checks if the record starts with the prefix
+		 * 
+		 * @param prefix
+		 * @return Boolean
+		 */
+		boolean startsWith(String prefix) {
+			if (!ascii)
+				return toString().startsWith(prefix);
+
+			if (prefix.length() > length)
+				return false;
+
+			for (int i = 0; i < prefix.length(); i++) {
+				if (buffer.get(offset + i) != prefix.charAt(i))
+					return false;
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			if (decoded == null) {
+				byte[] bytes = new byte[length];
+				for (int i = 0; i < length; i++) {
+					bytes[i] = buffer.get(offset + i);
+				}
+				decoded = new String(bytes, ascii ? StandardCharsets.US_ASCII : Charset.defaultCharset());
+			}
+			return decoded;
+		}
 	}
 
 }
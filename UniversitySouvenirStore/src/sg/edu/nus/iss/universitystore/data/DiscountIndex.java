@@ -0,0 +1,206 @@
+package sg.edu.nus.iss.universitystore.data;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+
+import sg.edu.nus.iss.universitystore.constants.Constants;
+import sg.edu.nus.iss.universitystore.model.Discount;
+
+/**
+ * Index of the Discounts compiled from the Discount Data. The start and the
+ * end of each Discount are kept as epoch days and the Discounts open to the
+ * Public are marked, so no date is parsed when a Discount is looked up. The
+ * Discounts applicable on a day are kept for Members and for the Public until
+ * the day changes, the best Discount is found among them only.
+ * 
+ * An index is built for one content of the Discount Data, it is replaced when
+ * a Discount is added, updated or deleted.
+ * 
+ * @author Sanjay
+ *
+ */
+class DiscountIndex {
+
+	/**
+	 * Discount with its dates compiled
+	 */
+	private static final class CompiledDiscount {
+
+		private final Discount discount;
+
+		/**
+		 * First day of the Discount
+		 */
+		private final long startDay;
+
+		/**
+		 * Last day of the Discount
+		 */
+		private final long endDay;
+
+		/**
+		 * Discount is open to customers who are not Members
+		 */
+		private final boolean isPublic;
+
+		CompiledDiscount(Discount discount, long startDay, long endDay) {
+			this.discount = discount;
+			this.startDay = startDay;
+			this.endDay = endDay;
+			this.isPublic = discount.getEligibilty().equalsIgnoreCase(Constants.Data.Discount.Eligibility.ALL);
+		}
+
+		/**
+		 * Checks if the day is the start day or within the period of the
+		 * Discount
+		 * 
+		 * @param day
+		 * @return Boolean
+		 */
+		boolean isApplicable(long day) {
+			return day == startDay || (day >= startDay && day <= endDay);
+		}
+	}
+
+	/**
+	 * Discounts in the order of the Discount Data
+	 */
+	private final ArrayList<Discount> discounts;
+
+	/**
+	 * First Discount of each code
+	 */
+	private final HashMap<String, Discount> discountsByCode;
+
+	/**
+	 * Discounts which may be applied to a Transaction, the default Discounts
+	 * for Members are found by code instead
+	 */
+	private final ArrayList<CompiledDiscount> compiledDiscounts;
+
+	/**
+	 * Day for which the applicable Discounts are kept
+	 */
+	private long activeDay = Long.MIN_VALUE;
+
+	private ArrayList<Discount> activeMemberDiscounts;
+
+	private ArrayList<Discount> activePublicDiscounts;
+
+	/**
+	 * Discount Index Constructor
+	 * 
+	 * @param discounts
+	 *            Valid Discounts in the order of the Discount Data
+	 */
+	DiscountIndex(Collection<Discount> discounts) {
+		this.discounts = new ArrayList<>(discounts);
+		discountsByCode = new HashMap<>();
+		compiledDiscounts = new ArrayList<>();
+
+		for (Discount discount : discounts) {
+			discountsByCode.putIfAbsent(discount.getCode(), discount);
+
+			if (discount.getCode().equals(Constants.Data.Discount.Member.Existing.CODE)
+					|| discount.getCode().equals(Constants.Data.Discount.Member.New.CODE))
+				continue;
+
+			CompiledDiscount compiledDiscount = compile(discount);
+			if (compiledDiscount != null)
+				compiledDiscounts.add(compiledDiscount);
+		}
+	}
+
+	/**
+	 * Get all Discounts
+	 * 
+	 * @return Discounts in the order of the Discount Data
+	 */
+	ArrayList<Discount> getAll() {
+		return new ArrayList<>(discounts);
+	}
+
+	/**
+	 * Find the Discount of a code
+	 * 
+	 * @param code
+	 * @return Discount, null if not found
+	 */
+	Discount find(String code) {
+		return discountsByCode.get(code.toUpperCase());
+	}
+
+	/**
+	 * Get the best of the customer Discount and the Discounts applicable on
+	 * the day
+	 * 
+	 * @param customerDiscount
+	 * @param isMember
+	 * @param day
+	 *            Epoch day
+	 * @return Discount with the highest percentage, the customer Discount on
+	 *         a tie
+	 */
+	synchronized Discount getBestDiscount(Discount customerDiscount, boolean isMember, long day) {
+		refresh(day);
+
+		Discount maxDiscount = customerDiscount;
+		for (Discount discount : isMember ? activeMemberDiscounts : activePublicDiscounts) {
+			if (discount.getPercentage() > maxDiscount.getPercentage())
+				maxDiscount = discount;
+		}
+		return maxDiscount;
+	}
+
+	/**
+	 * Keep the Discounts applicable on the day, if they are not kept already
+	 * 
+	 * @param day
+	 *            Epoch day
+	 */
+	synchronized void refresh(long day) {
+		if (day != activeDay)
+			activate(day);
+	}
+
+	/**
+	 * Keep the Discounts applicable on the day
+	 * 
+	 * @param day
+	 */
+	private void activate(long day) {
+		activeMemberDiscounts = new ArrayList<>();
+		activePublicDiscounts = new ArrayList<>();
+		for (CompiledDiscount compiledDiscount : compiledDiscounts) {
+			if (!compiledDiscount.isApplicable(day))
+				continue;
+
+			activeMemberDiscounts.add(compiledDiscount.discount);
+			if (compiledDiscount.isPublic)
+				activePublicDiscounts.add(compiledDiscount.discount);
+		}
+		activeDay = day;
+	}
+
+	/**
+	 * Compile the dates of a Discount, a Discount which starts 'ALWAYS' is
+	 * applicable on every day
+	 * 
+	 * @param discount
+	 * @return Compiled Discount, null if the start date is not a date
+	 */
+	private static CompiledDiscount compile(Discount discount) {
+		if (discount.getStartDate().equalsIgnoreCase(Constants.Data.Discount.ALWAYS))
+			return new CompiledDiscount(discount, Long.MIN_VALUE, Long.MAX_VALUE);
+
+		try {
+			long startDay = LocalDate.parse(discount.getStartDate()).toEpochDay();
+			return new CompiledDiscount(discount, startDay, startDay + discount.getPeriod() - 1);
+		} catch (DateTimeParseException exp) {
+			return null;
+		}
+	}
+}
@@ -2,7 +2,6 @@ package sg.edu.nus.iss.universitystore.data;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 
@@ -12,12 +11,18 @@ import sg.edu.nus.iss.universitystore.exception.DiscountException.DiscountError;
 import sg.edu.nus.iss.universitystore.exception.MemberException;
 import sg.edu.nus.iss.universitystore.model.Discount;
 import sg.edu.nus.iss.universitystore.model.Member;
-import sg.edu.nus.iss.universitystore.utility.DateUtils;
+import sg.edu.nus.iss.universitystore.utility.RecordTokenizer;
 import sg.edu.nus.iss.universitystore.validation.DiscountValidation;
 
 /**
  * Class Manages Discount Data File
  * 
+ * Discounts are compiled into a Discount Index on first use and the index is
+ * replaced whenever the Discount Data is changed, so finding a Discount or the
+ * best Discount of a customer reads no file and parses no date. The date is
+ * read from the Store Clock, the Discounts applicable on the new date are kept
+ * as soon as the day changes.
+ * 
  * @author Sanjay
  *
  */
@@ -47,13 +52,28 @@ public class DiscountManager {
 	/**
 	 * Instance of Discount Manager
 	 */
-	private static DiscountManager instance;
+	private static volatile DiscountManager instance;
 
 	/**
 	 * Discount Data
 	 */
 	private DataFile<Discount> discountData;
 
+	/**
+	 * Discounts compiled from the Discount Data, null until first used or
+	 * after the Discount Data is changed
+	 */
+	private volatile DiscountIndex discountIndex;
+
+	/**
+	 * Keeps the Discounts applicable on the new date of the Store Clock
+	 */
+	private final StoreClock.DayChangeListener dayChangeListener = date -> {
+		DiscountIndex index = discountIndex;
+		if (index != null)
+			index.refresh(date.toEpochDay());
+	};
+
 	/**
 	 * Member Data File Manager
 	 */
@@ -86,6 +106,8 @@ public class DiscountManager {
 	 * Delete instance of Data File Manager
 	 */
 	public static void deleteInstance() {
+		if (instance != null)
+			StoreClock.getInstance().removeDayChangeListener(instance.dayChangeListener);
 		instance = null;
 	}
 
@@ -102,6 +124,7 @@ public class DiscountManager {
 		try {
 			initialize();
 			memberManager = MemberManager.getInstance();
+			StoreClock.getInstance().addDayChangeListener(dayChangeListener);
 		} catch (MemberException | IOException memberExp) {
 			throw new DiscountException(DiscountError.UNKNOWN_ERROR);
 		}
@@ -125,30 +148,6 @@ public class DiscountManager {
 	// Validation for Discount
 	/***********************************************************/
 
-	/**
-	 * Validates the format of Data in a row of Data File and if the period is
-	 * >=0 and if percentage is < 100
-	 * 
-	 * @param dataLine
-	 * @return Boolean
-	 */
-	private boolean isValidDiscount(String[] discountList) {
-		boolean status = false;
-
-		try {
-			if (discountList.length == 6) {
-				status = DiscountValidation.isValidData(discountList[DiscountArg.CODE.ordinal()],
-						discountList[DiscountArg.DESCRIPTION.ordinal()], discountList[DiscountArg.START_DATE.ordinal()],
-						discountList[DiscountArg.PERIOD.ordinal()], discountList[DiscountArg.PERCENTAGE.ordinal()],
-						discountList[DiscountArg.ELIGIBILITY.ordinal()]);
-			}
-		} catch (DiscountException exception) {
-			status = false;
-		}
-
-		return status;
-	}
-
 	/**
 	 * Validates if the Discount is for New Member or Existing Member
 	 * 
@@ -191,86 +190,71 @@ public class DiscountManager {
 	/***********************************************************/
 
 	/**
-	 * Get all Valid Discounts applicable for current system date
+	 * Get the Discount Index, compiling it from the Discount Data if needed
 	 * 
-	 * @return List of Discounts
-	 * @throws IOException
+	 * @return Discount Index
+	 * @throws DiscountException
 	 */
-	private ArrayList<Discount> getAllMemberDiscounts() throws DiscountException {
-		ArrayList<Discount> discountList = getAllDiscounts();
-		ArrayList<Discount> memberDiscountList = new ArrayList<>();
+	private synchronized DiscountIndex getDiscountIndex() throws DiscountException {
+		if (discountIndex != null)
+			return discountIndex;
+
+		String[] discountStrLst = null;
+		try {
+			discountStrLst = discountData.getAll();
+		} catch (IOException ioExp) {
+			throw new DiscountException(DiscountError.UNKNOWN_ERROR);
+		}
 
-		for (Discount discount : discountList) {
+		ArrayList<Discount> discountList = new ArrayList<>();
+		for (String discountStr : discountStrLst) {
 
-			if (discount.getCode().equals(Constants.Data.Discount.Member.Existing.CODE)
-					|| discount.getCode().equals(Constants.Data.Discount.Member.New.CODE))
-				continue;
+			Discount discount = parseDiscount(discountStr);
 
-			// Checks if discount is applicable for current date
-			if (!isApplicableDate(discount.getStartDate(), discount.getPeriod() - 1))
+			// Checks if line in Data file is of valid
+			if (discount == null)
 				continue;
 
 			// Add Discount
-			memberDiscountList.add(discount);
+			discountList.add(discount);
 		}
 
-		return memberDiscountList;
+		discountIndex = new DiscountIndex(discountList);
+		return discountIndex;
 	}
 
 	/**
-	 * Return all discount applicable to non-members
-	 * 
-	 * @return List of Discounts applicable to the Public
-	 * @throws IOException
+	 * Drop the Discount Index after a change of the Discount Data, it is
+	 * compiled again on next use
 	 */
-	private ArrayList<Discount> getAllPublicDiscounts() throws DiscountException {
-		ArrayList<Discount> discountList = getAllMemberDiscounts();
-		ArrayList<Discount> publicDiscountList = new ArrayList<>();
-
-		for (Discount discount : discountList) {
-			if (discount.getEligibilty().equalsIgnoreCase(Constants.Data.Discount.Eligibility.ALL))
-				publicDiscountList.add(discount);
-		}
-
-		return publicDiscountList;
+	private synchronized void invalidateDiscountIndex() {
+		discountIndex = null;
 	}
 
 	/**
-	 * Checks if Current Date is within the Discount Start Date and Period or if
-	 * it is set as 'ALWAYS'
+	 * Parses a Row of the Discount Data File
 	 * 
-	 * @param startDate
-	 * @param period
-	 * @return
+	 * @param discountStr
+	 * @return Discount, null if the row is not valid
 	 */
-	private boolean isApplicableDate(String startDate, int period) {
-		// Checks if start date is set as 'ALWAYS'
-		if (startDate.equalsIgnoreCase(Constants.Data.Discount.ALWAYS))
-			return true;
-
-		LocalDate discountStrtDate = LocalDate.parse(startDate);
-
-		// Is applicable if Current Date is equal to or after discount date
-		// And if Current Date is equal to or before the end of the period of
-		// discount
-		return ((discountStrtDate.isBefore(Constants.DateTime.CURRENT_DATE)
-				&& discountStrtDate.plusDays(period).isAfter(Constants.DateTime.CURRENT_DATE))
-				|| (discountStrtDate.isEqual(Constants.DateTime.CURRENT_DATE)
-						|| discountStrtDate.plusDays(period).isEqual(Constants.DateTime.CURRENT_DATE)));
-
-	}
+	private Discount parseDiscount(String discountStr) {
+		String[] discountStrSpltLst = RecordTokenizer.tokenizeDiscount(discountStr);
 
-	/**
-	 * Splits Row of Data File into a list of Strings
-	 * 
-	 * @param line
-	 * @return Boolean
-	 */
-	private String[] splitDiscountData(String discountRow) {
+		// Format is checked by the tokenizer, only the values are validated
+		try {
+			if (discountStrSpltLst == null || !DiscountValidation.isValidValues(
+					discountStrSpltLst[DiscountArg.START_DATE.ordinal()], discountStrSpltLst[DiscountArg.PERIOD.ordinal()],
+					discountStrSpltLst[DiscountArg.PERCENTAGE.ordinal()]))
+				return null;
+		} catch (DiscountException discountExp) {
+			return null;
+		}
 
-		return DateUtils.extractContent(discountRow, Constants.Data.Discount.Pattern.LINE_MATCH,
-				Constants.Data.Discount.Pattern.DESCRIPTION_REPLACE,
-				Constants.Data.Discount.Pattern.OTHER_CNTNT_REPLACE);
+		return new Discount(discountStrSpltLst[DiscountArg.CODE.ordinal()],
+				discountStrSpltLst[DiscountArg.DESCRIPTION.ordinal()],
+				discountStrSpltLst[DiscountArg.START_DATE.ordinal()], discountStrSpltLst[DiscountArg.PERIOD.ordinal()],
+				discountStrSpltLst[DiscountArg.PERCENTAGE.ordinal()],
+				discountStrSpltLst[DiscountArg.ELIGIBILITY.ordinal()]);
 	}
 
 	/***********************************************************/
@@ -284,32 +268,7 @@ public class DiscountManager {
 	 * @throws IOException
 	 */
 	public ArrayList<Discount> getAllDiscounts() throws DiscountException {
-		ArrayList<Discount> discountList = new ArrayList<>();
-		String[] discountStrLst = null;
-		try {
-			discountStrLst = discountData.getAll();
-		} catch (IOException ioExp) {
-			throw new DiscountException(DiscountError.UNKNOWN_ERROR);
-		}
-
-		for (String discountStr : discountStrLst) {
-
-			String[] discountStrSpltLst = splitDiscountData(discountStr);
-
-			// Checks if line in Data file is of valid
-			if (!isValidDiscount(discountStrSpltLst))
-				continue;
-
-			// Add Discount
-			discountList.add(new Discount(discountStrSpltLst[DiscountArg.CODE.ordinal()],
-					discountStrSpltLst[DiscountArg.DESCRIPTION.ordinal()],
-					discountStrSpltLst[DiscountArg.START_DATE.ordinal()],
-					discountStrSpltLst[DiscountArg.PERIOD.ordinal()],
-					discountStrSpltLst[DiscountArg.PERCENTAGE.ordinal()],
-					discountStrSpltLst[DiscountArg.ELIGIBILITY.ordinal()]));
-		}
-
-		return discountList;
+		return getDiscountIndex().getAll();
 	}
 
 	/**
@@ -322,21 +281,36 @@ public class DiscountManager {
 	 * @throws MemberNotFound
 	 */
 	public Discount getCustomerDiscount(String memberID) throws DiscountException {
+		return getCustomerDiscount(memberID, memberManager.isMember(memberID));
+	}
+
+	/**
+	 * Get Discount Percentage for a Customer who has been checked to be a
+	 * Member or not
+	 * 
+	 * @param memberID
+	 * @param isMember
+	 * @return Discount
+	 * @throws DiscountException
+	 */
+	private Discount getCustomerDiscount(String memberID, boolean isMember) throws DiscountException {
 		// Customer who is not a Member will not get a discount
 		Discount discount = new Discount(Constants.Data.Discount.Member.Public.CODE,
 				Constants.Data.Discount.Member.Public.DESCRIPTION,
-				Constants.DateTime.CURRENT_DATE.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")),
+				StoreClock.getInstance().today().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")),
 				Constants.Data.Discount.Member.Public.PERIOD, Constants.Data.Discount.Member.Public.DEFAULT_DISCOUNT,
 				Constants.Data.Discount.Eligibility.ALL);
 
 		// Check if member is valid
-		if (memberManager.isMember(memberID)) {
+		if (isMember) {
 			Member member;
 			try {
-				member = memberManager.getMember(memberID);
+				member = memberManager.findMember(memberID);
 			} catch (MemberException exp) {
-				throw new DiscountException(DiscountError.MEMBER_NOT_PRESENT_IN_FILE);
+				member = null;
 			}
+			if (member == null)
+				throw new DiscountException(DiscountError.MEMBER_NOT_PRESENT_IN_FILE);
 			// Get Discount for New or Existing Member
 			discount = member.getLoyaltyPoints() == Constants.Data.Member.LOYALTY_NEW_MEMBER
 					? findDiscount(Constants.Data.Discount.Member.New.CODE)
@@ -356,16 +330,9 @@ public class DiscountManager {
 	 * @throws MemberNotFound
 	 */
 	public Discount getDiscount(String memberID) throws DiscountException {
-		Discount maxDiscount = getCustomerDiscount(memberID);
-		ArrayList<Discount> discountList = memberManager.isMember(memberID) ? getAllMemberDiscounts()
-				: getAllPublicDiscounts();
-
-		for (Discount discount : discountList) {
-			if (discount.getPercentage() > maxDiscount.getPercentage())
-				maxDiscount = discount;
-		}
-
-		return maxDiscount;
+		boolean isMember = memberManager.isMember(memberID);
+		return getDiscountIndex().getBestDiscount(getCustomerDiscount(memberID, isMember), isMember,
+				StoreClock.getInstance().today().toEpochDay());
 	}
 
 	/***********************************************************/
@@ -380,15 +347,7 @@ public class DiscountManager {
 	 * @throws DiscountException
 	 */
 	public Discount findDiscount(String code) throws DiscountException {
-		ArrayList<Discount> discountList = getAllDiscounts();
-		Discount discountFound = null;
-
-		for (Discount discount : discountList) {
-			if (discount.getCode().equals(code.toUpperCase())) {
-				discountFound = discount;
-				break;
-			}
-		}
+		Discount discountFound = getDiscountIndex().find(code);
 		// If the discount is not found, then throw an exception
 		if (discountFound == null) {
 			throw new DiscountException(DiscountError.DISCOUNT_NOT_PRESENT_IN_FILE);
@@ -398,21 +357,30 @@ public class DiscountManager {
 	}
 
 	/**
-	 * Check if Discount code exists
+	 * Look up Discount details, a code which is not found is answered without
+	 * an exception
 	 * 
 	 * @param code
-	 * @return
-	 * @throws IOException
+	 * @return Discount, null if not found or the Discount Data cannot be read
 	 */
-	public boolean hasDiscount(String code) {
+	public Discount lookupDiscount(String code) {
 		try {
-			findDiscount(code);
-			return true;
+			return getDiscountIndex().find(code);
 		} catch (DiscountException discountExp) {
-			return false;
+			return null;
 		}
 	}
 
+	/**
+	 * Check if Discount code exists
+	 * 
+	 * @param code
+	 * @return
+	 */
+	public boolean hasDiscount(String code) {
+		return lookupDiscount(code) != null;
+	}
+
 	/**
 	 * Add Discount
 	 * 
@@ -436,6 +404,8 @@ public class DiscountManager {
 								discount.getPeriod(), discount.getPercentage(), discount.getEligibilty()));
 			} catch (IOException ioExp) {
 				throw new DiscountException(DiscountError.UNKNOWN_ERROR);
+			} finally {
+				invalidateDiscountIndex();
 			}
 		}
 	}
@@ -449,9 +419,8 @@ public class DiscountManager {
 	 */
 	public boolean deleteDiscount(String code, boolean fromUpdate) throws DiscountException {
 
-		if (hasDiscount(code)) {
-			Discount discount = findDiscount(code);
-
+		Discount discount = lookupDiscount(code);
+		if (discount != null) {
 			if (!fromUpdate && isDefaultDiscount(discount))
 				throw new DiscountException(DiscountError.DEFAULT_DISCOUNT_NOT_DELETABLE);
 
@@ -459,6 +428,8 @@ public class DiscountManager {
 				return discountData.delete(discount.toString());
 			} catch (IOException ioExp) {
 				throw new DiscountException(DiscountError.UNKNOWN_ERROR);
+			} finally {
+				invalidateDiscountIndex();
 			}
 		}
 		return false;
@@ -3,7 +3,12 @@ package sg.edu.nus.iss.universitystore.data;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 import sg.edu.nus.iss.universitystore.constants.Constants;
 import sg.edu.nus.iss.universitystore.exception.InventoryException;
@@ -11,12 +16,17 @@ import sg.edu.nus.iss.universitystore.exception.InventoryException.InventoryErro
 import sg.edu.nus.iss.universitystore.model.Category;
 import sg.edu.nus.iss.universitystore.model.Product;
 import sg.edu.nus.iss.universitystore.model.Vendor;
-import sg.edu.nus.iss.universitystore.utility.DateUtils;
+import sg.edu.nus.iss.universitystore.utility.RecordTokenizer;
 import sg.edu.nus.iss.universitystore.validation.InventoryValidation;
 
 /**
  * Manager Class used to handle Inventory
  * 
+ * The public methods are synchronized, as the Catalogs of Categories and
+ * Products are shared by all terminals. Updates of a Product first take the
+ * lock of the Product which checkouts hold, so an edit is not made between the
+ * check and the update of the stock of a checkout.
+ * 
  * @author Sanjay
  *
  */
@@ -73,25 +83,48 @@ public class InventoryManager {
 	/**
 	 * Instance of Inventory Manager
 	 */
-	private static InventoryManager instance;
-
-	/**
-	 * Product ID which is generated
-	 */
-	private static Integer productID;
+	private static volatile InventoryManager instance;
 
 	/**
 	 * Category Data
 	 */
 	private DataFile<Category> categoryData;
+	/**
+	 * Categories by Code, loaded from the Category Data on first use and
+	 * cleared when a Category is added or deleted
+	 */
+	private HashMap<String, Category> categoryCatalog;
 	/**
 	 * Product Data
 	 */
 	private DataFile<Product> productData;
+	/**
+	 * Products by Identifier, loaded from the Product Data on first use and
+	 * kept in step with every write to it. Products are copied in and out as
+	 * callers modify the products they are given.
+	 */
+	private LinkedHashMap<String, Product> productCatalog;
+	/**
+	 * Products of the Product Catalog by Bar Code
+	 */
+	private BarCodeIndex barCodeIndex;
+	/**
+	 * Product Sequence Data, a row of Category Code and the last Product
+	 * number used in the Category
+	 */
+	private DataFile<String> sequenceData;
+	/**
+	 * Last Product number used by Category Code, loaded on first use
+	 */
+	private HashMap<String, Integer> productSequences;
 	/**
 	 * Vendor Map
 	 */
 	private HashMap<String, DataFile<Vendor>> vendorMap;
+	/**
+	 * Locks of the Products, held by checkouts and by updates of a Product
+	 */
+	private final StripedLock productLocks = new StripedLock(Constants.Data.Transaction.CHECKOUT_LOCK_STRIPES);
 
 	/***********************************************************/
 	// Singleton
@@ -137,7 +170,6 @@ public class InventoryManager {
 	 * @throws InventoryException
 	 */
 	public InventoryManager() throws InventoryException {
-		productID = (productID == null) ? Constants.Data.Product.INITIALIZED_COUNT : productID;
 		initialize();
 	}
 
@@ -157,6 +189,7 @@ public class InventoryManager {
 		try {
 			categoryData = new DataFile<>(Constants.Data.FileName.CATEGORY_DAT);
 			productData = new DataFile<>(Constants.Data.FileName.PRODUCT_DAT);
+			sequenceData = new DataFile<>(Constants.Data.FileName.SEQUENCE_DAT);
 		} catch (IOException ioExp) {
 			throw new InventoryException(InventoryError.UNKNOWN_ERROR);
 		}
@@ -195,7 +228,7 @@ public class InventoryManager {
 	 * @throws StoreException
 	 * @throws InventoryException
 	 */
-	public ArrayList<Category> getAllCategories() throws InventoryException {
+	public synchronized ArrayList<Category> getAllCategories() throws InventoryException {
 		ArrayList<Category> categoryList = new ArrayList<>();
 		String[] categoriesStrList;
 		try {
@@ -206,14 +239,13 @@ public class InventoryManager {
 
 		for (String categoryStr : categoriesStrList) {
 
-			String[] categoryStrSplt = categoryStr.split(Constants.Data.FILE_SEPTR);
+			Category category = parseCategory(categoryStr);
 
 			// If line in Data file is empty, skip line
-			if (!isValidCategoryData(categoryStrSplt))
+			if (category == null)
 				continue;
 
-			categoryList.add(new Category(categoryStrSplt[CategoryArg.CODE.ordinal()],
-					categoryStrSplt[CategoryArg.NAME.ordinal()]));
+			categoryList.add(category);
 		}
 
 		return categoryList;
@@ -227,7 +259,7 @@ public class InventoryManager {
 	 * @throws StoreException
 	 * @throws InventoryException
 	 */
-	public boolean addCategory(String categoryCode, String categoryName) throws InventoryException {
+	public synchronized boolean addCategory(String categoryCode, String categoryName) throws InventoryException {
 		if (!InventoryValidation.Catgory.isValidData(categoryCode, categoryName))
 			return false;
 
@@ -242,6 +274,9 @@ public class InventoryManager {
 			} catch (IOException ioExp) {
 				throw new InventoryException(InventoryError.UNKNOWN_ERROR);
 			}
+			// Products of the Category may have been skipped as not valid
+			categoryCatalog = null;
+			productCatalog = null;
 
 			// Add Vendor Data file
 			addVendorDataFile(category.getCode());
@@ -258,7 +293,7 @@ public class InventoryManager {
 	 * @throws StoreException
 	 * @throws InventoryException
 	 */
-	public boolean deleteCategory(String categoryCode) throws InventoryException {
+	public synchronized boolean deleteCategory(String categoryCode) throws InventoryException {
 		boolean status = false;
 
 		if (hasCategory(categoryCode)) {
@@ -267,6 +302,9 @@ public class InventoryManager {
 			try {
 				if (deleteAllVendors(categoryCode)) {
 					status = categoryData.delete(category.toString());
+					// Products of the Category are no longer valid
+					categoryCatalog = null;
+					productCatalog = null;
 				}
 			} catch (IOException ioExp) {
 				throw new InventoryException(InventoryError.UNKNOWN_ERROR);
@@ -286,7 +324,7 @@ public class InventoryManager {
 	 * @throws StoreException
 	 * @throws InventoryException
 	 */
-	public void updateCategory(Category oldCategory, Category updatedCategory) throws InventoryException {
+	public synchronized void updateCategory(Category oldCategory, Category updatedCategory) throws InventoryException {
 		// Check if the category exists
 		if (hasCategory(oldCategory.getCode())) {
 			// Get existing Vendor list
@@ -310,16 +348,16 @@ public class InventoryManager {
 	 * @throws StoreException
 	 * @throws InventoryException
 	 */
-	public Category findCategory(String categoryCode) throws InventoryException {
-		ArrayList<Category> categoryList = getAllCategories();
-		Category categoryFound = null;
-
-		for (Category category : categoryList) {
-			if (category.getCode().equals(categoryCode))
-				categoryFound = category;
+	public synchronized Category findCategory(String categoryCode) throws InventoryException {
+		if (categoryCatalog == null) {
+			HashMap<String, Category> catalog = new HashMap<>();
+			for (Category category : getAllCategories()) {
+				catalog.put(category.getCode(), category);
+			}
+			categoryCatalog = catalog;
 		}
 
-		return categoryFound;
+		return categoryCatalog.get(categoryCode);
 	}
 
 	/**
@@ -331,10 +369,25 @@ public class InventoryManager {
 	 * @throws StoreException
 	 * @throws InventoryException
 	 */
-	public boolean hasCategory(String categoryCode) throws InventoryException {
+	public synchronized boolean hasCategory(String categoryCode) throws InventoryException {
 		return InventoryValidation.Catgory.isValidCatgoryCode(categoryCode) && findCategory(categoryCode) != null;
 	}
 
+	/**
+	 * Parses a Row of the Category Data File
+	 * 
+	 * @param categoryStr
+	 * @return Category, null if the row is not valid
+	 */
+	private Category parseCategory(String categoryStr) {
+		String[] categoryStrSplt = categoryStr.split(Constants.Data.FILE_SEPTR);
+
+		if (!isValidCategoryData(categoryStrSplt))
+			return null;
+
+		return new Category(categoryStrSplt[CategoryArg.CODE.ordinal()], categoryStrSplt[CategoryArg.NAME.ordinal()]);
+	}
+
 	/**
 	 * Checks if category content is valid
 	 * 
@@ -365,32 +418,33 @@ public class InventoryManager {
 	 * @return List of Products
 	 * @throws IOException
 	 */
-	public ArrayList<Product> getAllProducts() throws InventoryException {
+	public synchronized ArrayList<Product> getAllProducts() throws InventoryException {
 		ArrayList<Product> productList = new ArrayList<>();
-		String[] productStrList;
-		try {
-			productStrList = productData.getAll();
-		} catch (IOException ioExp) {
-			throw new InventoryException(InventoryError.UNKNOWN_ERROR);
-		}
 
-		for (String productStr : productStrList) {
+		for (Product product : getProductCatalog().values()) {
+			productList.add(new Product(product));
+		}
 
-			String[] productStrSpltLst = splitProductData(productStr);
+		return productList;
+	}
 
-			// If line in Data file is empty, skip line
-			if (!isValidProductData(productStrSpltLst))
-				continue;
+	/**
+	 * Get All Products by Identifier, the Products are read from the catalog
+	 * once so that callers joining many records against them need no lookup
+	 * per record
+	 * 
+	 * @return Products by Identifier
+	 * @throws InventoryException
+	 */
+	public synchronized HashMap<String, Product> getProductsById() throws InventoryException {
+		LinkedHashMap<String, Product> catalog = getProductCatalog();
+		HashMap<String, Product> products = new HashMap<>(catalog.size() * 2);
 
-			productList.add(new Product(productStrSpltLst[ProductArg.IDENTIFIER.ordinal()],
-					productStrSpltLst[ProductArg.NAME.ordinal()], productStrSpltLst[ProductArg.DESCRIPTION.ordinal()],
-					productStrSpltLst[ProductArg.QUANTITY.ordinal()], productStrSpltLst[ProductArg.PRICE.ordinal()],
-					productStrSpltLst[ProductArg.BAR_CODE.ordinal()],
-					productStrSpltLst[ProductArg.REORDERTHRESHOLD.ordinal()],
-					productStrSpltLst[ProductArg.REORDERQUANTITY.ordinal()]));
+		for (Product product : catalog.values()) {
+			products.put(product.getIdentifier(), new Product(product));
 		}
 
-		return productList;
+		return products;
 	}
 
 	/**
@@ -407,8 +461,8 @@ public class InventoryManager {
 	 * @return Product
 	 * @throws InventoryException
 	 */
-	public Product addProduct(String categoryCode, String name, String description, String quantity, String price,
-			String barCode, String reorderThreshold, String reorderQuantity) throws InventoryException {
+	public synchronized Product addProduct(String categoryCode, String name, String description, String quantity,
+			String price, String barCode, String reorderThreshold, String reorderQuantity) throws InventoryException {
 
 		if (!hasCategory(categoryCode))
 			return null;
@@ -425,7 +479,7 @@ public class InventoryManager {
 				reorderThreshold, reorderQuantity);
 
 		try {
-			return productData.add(product) ? product : null;
+			return addToProductData(product) ? product : null;
 		} catch (IOException inExp) {
 			throw new InventoryException(InventoryError.UNKNOWN_ERROR);
 		}
@@ -438,19 +492,10 @@ public class InventoryManager {
 	 * @return Product, null if not found
 	 * @throws InventoryException
 	 */
-	public Product findProduct(String productID) throws InventoryException {
-		ArrayList<Product> productList = getAllProducts();
-
-		Product productFound = null;
-
-		for (Product product : productList) {
-			if (product.getIdentifier().equals(productID)) {
-				productFound = product;
-				break;
-			}
-		}
+	public synchronized Product findProduct(String productID) throws InventoryException {
+		Product product = getProductCatalog().get(productID);
 
-		return productFound;
+		return product == null ? null : new Product(product);
 	}
 
 	/**
@@ -460,19 +505,11 @@ public class InventoryManager {
 	 * @return Product, null if not found
 	 * @throws InventoryException
 	 */
-	public Product findProductByBarCode(String barCode) throws InventoryException {
-		ArrayList<Product> productList = getAllProducts();
-
-		Product productFound = null;
+	public synchronized Product findProductByBarCode(String barCode) throws InventoryException {
+		getProductCatalog();
+		Product product = barCodeIndex.get(barCode);
 
-		for (Product product : productList) {
-			if (product.getBarCode().equals(barCode)) {
-				productFound = product;
-				break;
-			}
-		}
-
-		return productFound;
+		return product == null ? null : new Product(product);
 	}
 
 	/**
@@ -482,8 +519,9 @@ public class InventoryManager {
 	 * @return Boolean
 	 * @throws InventoryException
 	 */
-	public boolean productBarCodeExists(String barCode) throws InventoryException {
-		return findProductByBarCode(barCode) != null;
+	public synchronized boolean productBarCodeExists(String barCode) throws InventoryException {
+		getProductCatalog();
+		return barCodeIndex.contains(barCode);
 	}
 
 	/**
@@ -495,7 +533,7 @@ public class InventoryManager {
 	 * @throws StoreException
 	 * @throws InventoryException
 	 */
-	public boolean isValidProduct(String productID) throws InventoryException {
+	public synchronized boolean isValidProduct(String productID) throws InventoryException {
 		boolean status = false;
 
 		String categoryCode = productID.replaceAll(Constants.Data.Product.Pattern.ID_MATCH,
@@ -514,7 +552,7 @@ public class InventoryManager {
 	 * @return
 	 * @throws InventoryException
 	 */
-	public boolean deleteProduct(Product product) throws InventoryException {
+	public synchronized boolean deleteProduct(Product product) throws InventoryException {
 		boolean status = false;
 
 		if (!isValidProduct(product.getIdentifier()))
@@ -523,6 +561,10 @@ public class InventoryManager {
 		product = findProduct(product.getIdentifier());
 		try {
 			if (productData.delete(product.toString())) {
+				productCatalog.remove(product.getIdentifier());
+				Product barCodeProduct = barCodeIndex.get(product.getBarCode());
+				if (barCodeProduct != null && barCodeProduct.getIdentifier().equals(product.getIdentifier()))
+					reindexBarCode(product.getBarCode());
 				status = true;
 			}
 		} catch (IOException ioExp) {
@@ -540,24 +582,14 @@ public class InventoryManager {
 	 * @throws InventoryException
 	 */
 	public boolean updateProduct(Product newProduct) throws InventoryException {
-		boolean status = false;
-
-		if (!isValidProduct(newProduct.getIdentifier()))
-			throw new InventoryException(InventoryError.PRODUCT_NOT_AVAILABLE);
-
-		if (productBarCodeExists(newProduct.getBarCode()))
-			throw new InventoryException(InventoryError.PRODUCT_BAR_CODE_EXISTS);
-
-		Product existingProduct = findProduct(newProduct.getIdentifier());
-		if (deleteProduct(existingProduct)) {
-			try {
-				status = productData.add(newProduct);
-			} catch (IOException ioExp) {
-				throw new InventoryException(InventoryError.UNKNOWN_ERROR);
-			}
+		// The lock of the Product is taken before the lock of the manager, in
+		// the order checkouts take them
+		ArrayList<ReentrantLock> locks = productLocks.lock(Collections.singleton(newProduct.getIdentifier()));
+		try {
+			return replaceProduct(newProduct, true);
+		} finally {
+			StripedLock.unlock(locks);
 		}
-
-		return status;
 	}
 
 	/**
@@ -568,21 +600,70 @@ public class InventoryManager {
 	 * @throws InventoryException
 	 */
 	public boolean updateProductForTransaction(Product newProduct) throws InventoryException {
-		boolean status = false;
+		ArrayList<ReentrantLock> locks = productLocks.lock(Collections.singleton(newProduct.getIdentifier()));
+		try {
+			return replaceProduct(newProduct, false);
+		} finally {
+			StripedLock.unlock(locks);
+		}
+	}
 
-		if (!isValidProduct(newProduct.getIdentifier()))
-			throw new InventoryException(InventoryError.PRODUCT_NOT_AVAILABLE);
+	/**
+	 * Apply changes of quantity to Products, such as the items of a
+	 * Transaction. All Products are checked before any is changed, and the
+	 * Product Data is written once with a single append for all of them.
+	 * 
+	 * @param stockDeltas
+	 *            Change of quantity by Product Identifier
+	 * @return Boolean
+	 * @throws InventoryException
+	 */
+	public synchronized boolean applyStockDeltas(Map<String, Integer> stockDeltas) throws InventoryException {
+		LinkedHashMap<String, Product> catalog = getProductCatalog();
+
+		ArrayList<String> existingProducts = new ArrayList<>();
+		ArrayList<Product> updatedProducts = new ArrayList<>();
+		for (Map.Entry<String, Integer> stockDelta : stockDeltas.entrySet()) {
+			Product product = catalog.get(stockDelta.getKey());
+			if (product == null)
+				throw new InventoryException(InventoryError.PRODUCT_NOT_AVAILABLE);
+			if (stockDelta.getValue() == 0)
+				continue;
 
-		Product existingProduct = findProduct(newProduct.getIdentifier());
-		if (deleteProduct(existingProduct)) {
-			try {
-				status = productData.add(newProduct);
-			} catch (IOException ioExp) {
-				throw new InventoryException(InventoryError.UNKNOWN_ERROR);
-			}
+			Product updatedProduct = new Product(product);
+			updatedProduct.setQuantity(product.getQuantity() + stockDelta.getValue());
+			existingProducts.add(product.toString());
+			updatedProducts.add(updatedProduct);
 		}
 
-		return status;
+		try {
+			if (!productData.update(existingProducts, updatedProducts))
+				return false;
+		} catch (IOException ioExp) {
+			throw new InventoryException(InventoryError.UNKNOWN_ERROR);
+		}
+
+		for (Product updatedProduct : updatedProducts) {
+			catalog.put(updatedProduct.getIdentifier(), updatedProduct);
+			Product barCodeProduct = barCodeIndex.get(updatedProduct.getBarCode());
+			if (barCodeProduct != null && barCodeProduct.getIdentifier().equals(updatedProduct.getIdentifier()))
+				barCodeIndex.put(updatedProduct);
+		}
+		return true;
+	}
+
+	/**
+	 * Force the changes of the Product Data to disk, whatever the Durability
+	 * of its appends
+	 * 
+	 * @throws InventoryException
+	 */
+	synchronized void forceProductData() throws InventoryException {
+		try {
+			productData.force();
+		} catch (IOException ioExp) {
+			throw new InventoryException(InventoryError.UNKNOWN_ERROR);
+		}
 	}
 
 	/**
@@ -591,7 +672,7 @@ public class InventoryManager {
 	 * @return List of Products
 	 * @throws InventoryException
 	 */
-	public ArrayList<Product> getProductsBelowThreshold() throws InventoryException {
+	public synchronized ArrayList<Product> getProductsBelowThreshold() throws InventoryException {
 		ArrayList<Product> productList = getAllProducts();
 		if (productList.size() == Constants.Data.Product.PRODUCT_ZERO)
 			throw new InventoryException(InventoryError.PRODUCT_ZERO);
@@ -614,7 +695,7 @@ public class InventoryManager {
 	 * @param productList
 	 * @return Boolean
 	 */
-	public boolean isValidProductData(String[] productList) {
+	public synchronized boolean isValidProductData(String[] productList) {
 		boolean status = false;
 
 		try {
@@ -636,51 +717,220 @@ public class InventoryManager {
 	}
 
 	/**
-	 * Splits Row of Data File into a list of Strings
+	 * Get the Product Catalog, loading it and the Bar Code Index from the
+	 * Product Data if needed
+	 * 
+	 * @return Products by Identifier
+	 * @throws InventoryException
+	 */
+	private LinkedHashMap<String, Product> getProductCatalog() throws InventoryException {
+		if (productCatalog != null)
+			return productCatalog;
+
+		String[] productStrList;
+		try {
+			productStrList = productData.getAll();
+		} catch (IOException ioExp) {
+			throw new InventoryException(InventoryError.UNKNOWN_ERROR);
+		}
+
+		LinkedHashMap<String, Product> catalog = new LinkedHashMap<>();
+		BarCodeIndex index = new BarCodeIndex();
+		for (String productStr : productStrList) {
+
+			Product product = parseProduct(productStr);
+
+			// If line in Data file is empty, skip line
+			if (product == null || catalog.containsKey(product.getIdentifier()))
+				continue;
+
+			catalog.put(product.getIdentifier(), product);
+			// The first Product with a Bar Code is the one found
+			if (!index.contains(product.getBarCode()))
+				index.put(product);
+		}
+
+		barCodeIndex = index;
+		productCatalog = catalog;
+		return productCatalog;
+	}
+
+	/**
+	 * Point the Bar Code Index at the first Product of the Product Catalog
+	 * with the Bar Code, or remove the Bar Code if no Product has it
+	 * 
+	 * @param barCode
+	 */
+	private void reindexBarCode(String barCode) {
+		barCodeIndex.remove(barCode);
+		for (Product product : productCatalog.values()) {
+			if (product.getBarCode().equals(barCode)) {
+				barCodeIndex.put(product);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Add a Product to the Product Data and the Product Catalog
 	 * 
-	 * @param line
+	 * @param product
 	 * @return Boolean
+	 * @throws IOException
+	 * @throws InventoryException
 	 */
-	private String[] splitProductData(String productRow) {
+	private boolean addToProductData(Product product) throws IOException, InventoryException {
+		LinkedHashMap<String, Product> catalog = getProductCatalog();
+		if (!productData.add(product))
+			return false;
 
-		return DateUtils.extractContent(productRow, Constants.Data.Product.Pattern.LINE_MATCH,
-				Constants.Data.Product.Pattern.DESCRIPTION_REPLACE, Constants.Data.Product.Pattern.OTHER_CNTNT_REPLACE);
+		Product catalogProduct = new Product(product);
+		catalog.put(catalogProduct.getIdentifier(), catalogProduct);
+		barCodeIndex.put(catalogProduct);
+		return true;
+	}
+
+	/**
+	 * Parses a Row of the Product Data File
+	 * 
+	 * @param productStr
+	 * @return Product, null if the row is not valid
+	 */
+	private Product parseProduct(String productStr) throws InventoryException {
+		String[] productStrSpltLst = RecordTokenizer.tokenizeProduct(productStr);
+
+		// Row is not of the format or the Category of the Product does not exist
+		if (productStrSpltLst == null)
+			return null;
+		String productID = productStrSpltLst[ProductArg.IDENTIFIER.ordinal()];
+		if (findCategory(productID.substring(0, productID.indexOf(Constants.Data.ID_SEPTR))) == null)
+			return null;
+
+		return new Product(productStrSpltLst[ProductArg.IDENTIFIER.ordinal()],
+				productStrSpltLst[ProductArg.NAME.ordinal()], productStrSpltLst[ProductArg.DESCRIPTION.ordinal()],
+				productStrSpltLst[ProductArg.QUANTITY.ordinal()], productStrSpltLst[ProductArg.PRICE.ordinal()],
+				productStrSpltLst[ProductArg.BAR_CODE.ordinal()],
+				productStrSpltLst[ProductArg.REORDERTHRESHOLD.ordinal()],
+				productStrSpltLst[ProductArg.REORDERQUANTITY.ordinal()]);
 	}
 
 	/***********************************************************/
 	// Private Methods for Product
 	/***********************************************************/
 
+	/**
+	 * Get the locks of the Products, checkouts hold the locks of their
+	 * Products while they check and update the stock
+	 * 
+	 * @return Product Locks
+	 */
+	StripedLock getProductLocks() {
+		return productLocks;
+	}
+
+	/**
+	 * Replace a product with its updated details. The old row is deleted and
+	 * the new one added with a single append, so a crash never leaves the
+	 * product without a row.
+	 * 
+	 * @param newProduct
+	 * @param checkBarCode
+	 *            Whether the Bar Code must not be used by a product
+	 * @return Boolean
+	 * @throws InventoryException
+	 */
+	private synchronized boolean replaceProduct(Product newProduct, boolean checkBarCode)
+			throws InventoryException {
+		if (!isValidProduct(newProduct.getIdentifier()))
+			throw new InventoryException(InventoryError.PRODUCT_NOT_AVAILABLE);
+
+		if (checkBarCode && productBarCodeExists(newProduct.getBarCode()))
+			throw new InventoryException(InventoryError.PRODUCT_BAR_CODE_EXISTS);
+
+		LinkedHashMap<String, Product> catalog = getProductCatalog();
+		Product existingProduct = catalog.get(newProduct.getIdentifier());
+		try {
+			if (!productData.update(Collections.singletonList(existingProduct.toString()),
+					Collections.singletonList(newProduct)))
+				return false;
+		} catch (IOException ioExp) {
+			throw new InventoryException(InventoryError.UNKNOWN_ERROR);
+		}
+
+		// The row is now the last of the Product Data, as it is in the Catalog
+		catalog.remove(existingProduct.getIdentifier());
+		Product barCodeProduct = barCodeIndex.get(existingProduct.getBarCode());
+		if (barCodeProduct != null && barCodeProduct.getIdentifier().equals(existingProduct.getIdentifier()))
+			reindexBarCode(existingProduct.getBarCode());
+
+		Product catalogProduct = new Product(newProduct);
+		catalog.put(catalogProduct.getIdentifier(), catalogProduct);
+		barCodeIndex.put(catalogProduct);
+		return true;
+	}
+
 	/**
 	 * Method to get the product Id that will be assigned to the new product.
+	 * The number is taken from the Product Sequences and saved before it is
+	 * returned, so that it is never given out twice.
 	 * 
 	 * @param The
 	 *            category code to which the product belongs to.
 	 * @return The product Id that will be assigned to the new product.
 	 */
-	private int getProductId(String categoryCode) throws InventoryException {
-		// Initialize the return value
-		int productId = 0;
-
-		// Check the category code in file
-		// Get all categories
-		ArrayList<Product> arrProducts = getAllProducts();
-
-		for (Product product : arrProducts) {
-			String[] parts = product.getIdentifier().split(Constants.Data.ID_SEPTR);
-			// If found, then check if the current value is greater than found
-			// value
-			if (parts[0].equals(categoryCode)) {
-				int parsedValue = Integer.parseInt(parts[1]);
-				if (productId < parsedValue) {
-					productId = parsedValue;
-				}
+	private synchronized int getProductId(String categoryCode) throws InventoryException {
+		HashMap<String, Integer> sequences = getProductSequences();
+		Integer lastProductId = sequences.get(categoryCode);
+		int productId = (lastProductId == null ? Constants.Data.Product.INITIALIZED_COUNT : lastProductId) + 1;
+
+		// The old number is replaced with a single append, so a crash never
+		// leaves the Category without a number
+		try {
+			List<String> lastSequence = lastProductId == null ? Collections.<String>emptyList()
+					: Collections.singletonList(categoryCode + Constants.Data.FILE_SEPTR + lastProductId);
+			if (!sequenceData.update(lastSequence,
+					Collections.singletonList(categoryCode + Constants.Data.FILE_SEPTR + productId)))
+				throw new InventoryException(InventoryError.UNKNOWN_ERROR);
+		} catch (IOException ioExp) {
+			throw new InventoryException(InventoryError.UNKNOWN_ERROR);
+		}
+		sequences.put(categoryCode, productId);
+
+		return productId;
+	}
+
+	/**
+	 * Get the Product Sequences, loading them from the Product Sequence Data.
+	 * Numbers of Products which are above the saved number, such as those
+	 * added before the Sequences were kept, are taken into account.
+	 * 
+	 * @return Last Product number used by Category Code
+	 * @throws InventoryException
+	 */
+	private HashMap<String, Integer> getProductSequences() throws InventoryException {
+		if (productSequences != null)
+			return productSequences;
+
+		HashMap<String, Integer> sequences = new HashMap<>();
+		try {
+			for (String sequenceStr : sequenceData.getAll()) {
+				String[] sequenceStrSplt = sequenceStr.split(Constants.Data.FILE_SEPTR);
+				if (sequenceStrSplt.length == 2 && sequenceStrSplt[1].matches(Constants.Common.Pattern.NUMBER_MATCH))
+					sequences.merge(sequenceStrSplt[0], Integer.parseInt(sequenceStrSplt[1]), Math::max);
 			}
+		} catch (IOException ioExp) {
+			throw new InventoryException(InventoryError.UNKNOWN_ERROR);
 		}
 
-		// Add one to the new product.
-		return ++productId;
+		for (String productID : getProductCatalog().keySet()) {
+			String[] parts = productID.split(Constants.Data.ID_SEPTR);
+			sequences.merge(parts[0], Integer.parseInt(parts[1]), Math::max);
+		}
+
+		productSequences = sequences;
+		return productSequences;
 	}
+
 	/***********************************************************/
 	// Public Methods for Vendor
 	/***********************************************************/
@@ -691,7 +941,7 @@ public class InventoryManager {
 	 * @return List of Vendors
 	 * @throws IOException
 	 */
-	public ArrayList<Vendor> getAllVendors(String categoryCode) throws InventoryException {
+	public synchronized ArrayList<Vendor> getAllVendors(String categoryCode) throws InventoryException {
 		ArrayList<Vendor> vendorList = new ArrayList<>();
 		DataFile<Vendor> vendorData = vendorMap.get(categoryCode);
 		String[] vendorStrList;
@@ -724,7 +974,7 @@ public class InventoryManager {
 	 * @throws FileNotFoundException
 	 * @throws IOException
 	 */
-	public void addVendorDataFile(String categoryCode) throws InventoryException {
+	public synchronized void addVendorDataFile(String categoryCode) throws InventoryException {
 		try {
 			vendorMap.put(categoryCode, new DataFile<Vendor>(Constants.Data.FileName.VENDOR_DAT + categoryCode));
 		} catch (IOException ioExp) {
@@ -741,7 +991,7 @@ public class InventoryManager {
 	 * @return Status
 	 * @throws IOException
 	 */
-	public boolean addVendor(String categoryCode, String vendorName, String vendorDescription)
+	public synchronized boolean addVendor(String categoryCode, String vendorName, String vendorDescription)
 			throws InventoryException {
 		if (!hasCategory(categoryCode)) {
 			throw new InventoryException(InventoryError.CATEGORY_NOT_AVAILABLE);
@@ -766,7 +1016,7 @@ public class InventoryManager {
 	 * @return
 	 * @throws InventoryException
 	 */
-	public boolean deleteAllVendors(String categoryCode) throws InventoryException {
+	public synchronized boolean deleteAllVendors(String categoryCode) throws InventoryException {
 		boolean status = false;
 		if (!hasCategory(categoryCode)) {
 			throw new InventoryException(InventoryError.CATEGORY_NOT_AVAILABLE);
@@ -789,7 +1039,7 @@ public class InventoryManager {
 	 * @return
 	 * @throws IOException
 	 */
-	public boolean deleteVendor(String categoryCode, String vendorName) throws InventoryException {
+	public synchronized boolean deleteVendor(String categoryCode, String vendorName) throws InventoryException {
 		boolean status = false;
 		if (!hasCategory(categoryCode)) {
 			throw new InventoryException(InventoryError.CATEGORY_NOT_AVAILABLE);
@@ -819,7 +1069,7 @@ public class InventoryManager {
 	 *         found.
 	 * @throws InventoryException
 	 */
-	public Vendor findVendor(String categoryCode, String vendorName) throws InventoryException {
+	public synchronized Vendor findVendor(String categoryCode, String vendorName) throws InventoryException {
 		ArrayList<Vendor> vendorList = getAllVendors(categoryCode);
 		Vendor vendorFound = null;
 
@@ -840,7 +1090,7 @@ public class InventoryManager {
 	 * @return List of Vendors
 	 * @throws IOException
 	 */
-	public ArrayList<Vendor> getVendorBasedOnProduct(Product product) throws InventoryException {
+	public synchronized ArrayList<Vendor> getVendorBasedOnProduct(Product product) throws InventoryException {
 		ArrayList<Vendor> vendorList = new ArrayList<>();
 		// TODO: GOOD to have a check if category is valid
 
@@ -42,7 +42,7 @@ public class LoginManager {
 	/**
 	 * Instance of Login Manager
 	 */
-	private static LoginManager instance;
+	private static volatile LoginManager instance;
 	/**
 	 * Data File for Store Keeper
 	 */
@@ -170,8 +170,27 @@ public class LoginManager {
 	 *            Store Keeper Credentials
 	 * @return Boolean
 	 * @throws LoginException
+	 *             If the credentials are not valid
 	 */
 	public boolean isValidCredentials(StoreKeeper enteredCredentials) throws LoginException {
+		if (hasCredentials(enteredCredentials))
+			return true;
+
+		// Throw an exception.
+		throw new LoginException(LoginError.INVALID_CREDENTIALS);
+	}
+
+	/**
+	 * Checks if Entered Credentials match a Store Keeper, credentials which
+	 * do not match are answered without an exception
+	 * 
+	 * @param enteredCredentials
+	 *            Store Keeper Credentials
+	 * @return Boolean
+	 * @throws LoginException
+	 *             If the Store Keeper Data cannot be read
+	 */
+	public boolean hasCredentials(StoreKeeper enteredCredentials) throws LoginException {
 		// Check if the data matches as in dB
 		ArrayList<StoreKeeper> credentials = getLoginCredentials();
 		for (StoreKeeper credentailsData : credentials) {
@@ -179,8 +198,7 @@ public class LoginManager {
 				return true;
 			}
 		}
-		// Throw an exception.
-		throw new LoginException(LoginError.INVALID_CREDENTIALS);
+		return false;
 	}
 
 }
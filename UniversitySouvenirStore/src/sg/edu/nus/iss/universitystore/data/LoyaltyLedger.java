@@ -0,0 +1,178 @@
+package sg.edu.nus.iss.universitystore.data;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import sg.edu.nus.iss.universitystore.constants.Constants;
+
+/**
+ * Ledger of the changes of loyalty points of the Members. Each change is
+ * appended as an entry of sequence number, Member Identifier, change and
+ * Transaction Identifier, and the changes of each Member are folded into a
+ * total in memory. The loyalty points of a Member are the points of its row in
+ * the Member Data plus its total.
+ * 
+ * Every {@link Constants.Data.Member#LOYALTY_SNAPSHOT_ENTRIES} entries the
+ * totals are written to a snapshot along with the last sequence number and the
+ * ledger is emptied. Entries up to the sequence number of the snapshot are
+ * skipped when the ledger is loaded, so a crash between writing the snapshot
+ * and emptying the ledger does not count an entry twice.
+ * 
+ * @author Sanjay
+ *
+ */
+class LoyaltyLedger {
+
+	/**
+	 * Fields of an entry of the ledger
+	 */
+	private enum LedgerArg {
+		SEQUENCE, MEMBER_ID, CHANGE, TRANSACTION_ID;
+	}
+
+	/**
+	 * Fields of a row of the snapshot, the first row holds only the sequence
+	 * number
+	 */
+	private enum SnapshotArg {
+		MEMBER_ID, TOTAL;
+	}
+
+	private DataFile<String> ledgerData;
+
+	private DataFile<String> snapshotData;
+
+	/**
+	 * Total change of loyalty points by Member Identifier
+	 */
+	private HashMap<String, Integer> totals;
+
+	/**
+	 * Sequence number of the last entry
+	 */
+	private long sequence;
+
+	/**
+	 * Number of entries in the ledger since the last snapshot
+	 */
+	private int entries;
+
+	LoyaltyLedger() throws IOException {
+		ledgerData = new DataFile<>(Constants.Data.FileName.LOYALTY_LEDGER_DAT);
+		snapshotData = new DataFile<>(Constants.Data.FileName.LOYALTY_SNAPSHOT_DAT);
+		load();
+	}
+
+	/**
+	 * Get the total change of loyalty points of a Member
+	 * 
+	 * @param memberId
+	 * @return Total, 0 if the Member has no entries
+	 */
+	synchronized int getTotal(String memberId) {
+		return totals.getOrDefault(memberId, 0);
+	}
+
+	/**
+	 * Append a change of loyalty points of a Member
+	 * 
+	 * @param memberId
+	 * @param change
+	 * @param transactionId
+	 *            Transaction which made the change, or
+	 *            {@link Constants.Data.Member#LOYALTY_NO_TRANSACTION}
+	 * @return Boolean
+	 * @throws IOException
+	 */
+	synchronized boolean add(String memberId, int change, int transactionId) throws IOException {
+		if (change == 0)
+			return true;
+
+		if (!ledgerData.add(getEntry(sequence + 1, memberId, change, transactionId)))
+			return false;
+		sequence++;
+		totals.merge(memberId, change, Integer::sum);
+
+		if (++entries >= Constants.Data.Member.LOYALTY_SNAPSHOT_ENTRIES)
+			snapshot();
+		return true;
+	}
+
+	/**
+	 * Force the entries and the snapshot written to disk
+	 * 
+	 * @throws IOException
+	 */
+	synchronized void force() throws IOException {
+		snapshotData.force();
+		ledgerData.force();
+	}
+
+	/**
+	 * Write the totals to the snapshot and empty the ledger
+	 * 
+	 * @throws IOException
+	 */
+	synchronized void snapshot() throws IOException {
+		ArrayList<String> rows = new ArrayList<>(totals.size() + 1);
+		rows.add(String.valueOf(sequence));
+		for (Map.Entry<String, Integer> total : totals.entrySet()) {
+			if (total.getValue() != 0)
+				rows.add(total.getKey() + Constants.Data.FILE_SEPTR + total.getValue());
+		}
+
+		if (snapshotData.addAll(rows)) {
+			ledgerData.deleteAll();
+			entries = 0;
+		}
+	}
+
+	/**
+	 * Load the totals from the snapshot and the entries of the ledger after it
+	 * 
+	 * @throws IOException
+	 */
+	private void load() throws IOException {
+		totals = new HashMap<>();
+		long[] snapshotSequence = { 0 };
+		snapshotData.forEach(row -> {
+			String[] rowSplt = row.toString().split(Constants.Data.FILE_SEPTR);
+			try {
+				if (rowSplt.length == 1)
+					snapshotSequence[0] = Long.parseLong(rowSplt[0]);
+				else
+					totals.put(rowSplt[SnapshotArg.MEMBER_ID.ordinal()],
+							Integer.parseInt(rowSplt[SnapshotArg.TOTAL.ordinal()]));
+			} catch (ArrayIndexOutOfBoundsException | NumberFormatException exp) {
+				// Skip rows which are not of the format
+			}
+		});
+
+		sequence = snapshotSequence[0];
+		entries = 0;
+		ledgerData.forEach(entry -> {
+			String[] entrySplt = entry.toString().split(Constants.Data.FILE_SEPTR);
+			try {
+				long entrySequence = Long.parseLong(entrySplt[LedgerArg.SEQUENCE.ordinal()]);
+				int change = Integer.parseInt(entrySplt[LedgerArg.CHANGE.ordinal()]);
+				Integer.parseInt(entrySplt[LedgerArg.TRANSACTION_ID.ordinal()]);
+				entries++;
+				// Folded into the snapshot already
+				if (entrySequence <= snapshotSequence[0])
+					return;
+
+				totals.merge(entrySplt[LedgerArg.MEMBER_ID.ordinal()], change, Integer::sum);
+				sequence = Math.max(sequence, entrySequence);
+			} catch (ArrayIndexOutOfBoundsException | NumberFormatException exp) {
+				// Skip entries torn by a crash
+			}
+		});
+	}
+
+	private static String getEntry(long sequence, String memberId, int change, int transactionId) {
+		return sequence + Constants.Data.FILE_SEPTR + memberId + Constants.Data.FILE_SEPTR + change
+				+ Constants.Data.FILE_SEPTR + transactionId;
+	}
+}
@@ -3,7 +3,10 @@ package sg.edu.nus.iss.universitystore.data;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import sg.edu.nus.iss.universitystore.constants.Constants;
 import sg.edu.nus.iss.universitystore.exception.MemberException;
@@ -14,6 +17,17 @@ import sg.edu.nus.iss.universitystore.validation.MemberValidation;
 /**
  * Manages Member Data File
  * 
+ * Members are kept in a Catalog by Identifier, loaded from the Member Data on
+ * first use and written through on every change, so a Member is found without
+ * reading the file. The public methods are synchronized as the Catalog is
+ * shared by all terminals, except for the check of a Member which reads a
+ * concurrent set of the Identifiers so that the many customers who are not
+ * Members do not wait on a checkout.
+ * 
+ * Changes of loyalty points are appended to the Loyalty Ledger, the row of a
+ * Member in the Member Data is only written when its profile changes and keeps
+ * the points the Member had before the changes in the ledger.
+ * 
  * @author Deepak Raaj
  *
  */
@@ -43,11 +57,26 @@ public class MemberManager {
 	/**
 	 * Member instance
 	 */
-	private static MemberManager instance;
+	private static volatile MemberManager instance;
 	/**
 	 * Member Data
 	 */
 	private DataFile<Member> memberData;
+	/**
+	 * Members by Identifier, loaded from the Member Data on first use and kept
+	 * in step with every write to it. Members are copied in and out as
+	 * callers modify the members they are given.
+	 */
+	private LinkedHashMap<String, Member> memberCatalog;
+	/**
+	 * Identifiers of the Members in the Catalog, published once the Catalog is
+	 * loaded and read without the lock
+	 */
+	private volatile Set<String> memberIdentifiers;
+	/**
+	 * Changes of loyalty points of the Members
+	 */
+	private LoyaltyLedger loyaltyLedger;
 
 	/***********************************************************/
 	// Private Method for Constructors
@@ -106,6 +135,7 @@ public class MemberManager {
 	 */
 	private void initialize() throws FileNotFoundException, IOException {
 		memberData = new DataFile<>(Constants.Data.FileName.MEMBER_DAT);
+		loyaltyLedger = new LoyaltyLedger();
 	}
 
 	/***********************************************************/
@@ -140,7 +170,7 @@ public class MemberManager {
 	 * @return Boolean
 	 * @throws IOException
 	 */
-	public boolean addNewMember(String identifier, String name) throws MemberException {
+	public synchronized boolean addNewMember(String identifier, String name) throws MemberException {
 		// Check if the member already exists
 		if (isMember(identifier)) {
 			throw new MemberException(MemberError.MEMBER_IDENTIFIER_ALREADY_PRESENT);
@@ -151,6 +181,8 @@ public class MemberManager {
 			} catch (IOException e) {
 				throw new MemberException(MemberError.UNKNOWN_ERROR);
 			}
+			getMemberCatalog().put(identifier, newMember);
+			memberIdentifiers.add(identifier);
 			return true;
 		}
 	}
@@ -159,20 +191,12 @@ public class MemberManager {
 	 * Finding member using id
 	 * 
 	 * @param identifier
-	 * @return Member, if member not found return null
+	 * @return Member
 	 * @throws MemberException
+	 *             If the member is not found
 	 */
-	public Member getMember(String identifier) throws MemberException {
-		// First check the list
-		Member memberResult = null;
-		Iterator<Member> list = getAllMembers().iterator();
-		while (list.hasNext()) {
-			Member memberFound = list.next();
-			if (memberFound.getIdentifier().equals(identifier)) {
-				memberResult = memberFound;
-				break;
-			}
-		}
+	public synchronized Member getMember(String identifier) throws MemberException {
+		Member memberResult = findMember(identifier);
 
 		// If the member was not found, we throw an exception
 		if (memberResult == null) {
@@ -182,13 +206,48 @@ public class MemberManager {
 		return memberResult;
 	}
 
+	/**
+	 * Find a Member, a customer who is not a Member is answered without an
+	 * exception
+	 * 
+	 * @param identifier
+	 * @return Member, null if not found
+	 * @throws MemberException
+	 *             If the Member Data cannot be read
+	 */
+	public synchronized Member findMember(String identifier) throws MemberException {
+		if (!isMember(identifier))
+			return null;
+
+		Member memberResult = getMemberCatalog().get(identifier);
+		return memberResult == null ? null : new Member(memberResult);
+	}
+
 	/**
 	 * Displaying all member data
 	 * 
 	 * @return List of Members
 	 * @throws IOException
 	 */
-	public ArrayList<Member> getAllMembers() throws MemberException {
+	public synchronized ArrayList<Member> getAllMembers() throws MemberException {
+		// Store all the values in an array list.
+		ArrayList<Member> storedMembers = new ArrayList<Member>();
+		for (Member member : getMemberCatalog().values()) {
+			storedMembers.add(new Member(member));
+		}
+		return storedMembers;
+	}
+
+	/**
+	 * Get the Member Catalog, loading it from the Member Data if needed
+	 * 
+	 * @return Members by Identifier
+	 * @throws MemberException
+	 */
+	private LinkedHashMap<String, Member> getMemberCatalog() throws MemberException {
+		if (memberCatalog != null)
+			return memberCatalog;
+
 		String[] membersList;
 		// Read all the data from file
 		try {
@@ -196,37 +255,64 @@ public class MemberManager {
 		} catch (IOException e) {
 			throw new MemberException(MemberError.UNKNOWN_ERROR);
 		}
-		// Store all the values in an array list.
-		ArrayList<Member> storedMembers = new ArrayList<Member>();
+
+		LinkedHashMap<String, Member> catalog = new LinkedHashMap<>();
 		for (String singleMember : membersList) {
 
-			String[] memberStrSpltLst = singleMember.split(Constants.Data.FILE_SEPTR);
+			Member member = parseMember(singleMember);
 
-			if (memberStrSpltLst.length != 3 || !isValidMemberData(memberStrSpltLst))
+			// The first row of a member is the one found
+			if (member == null || catalog.containsKey(member.getIdentifier()))
 				continue;
 
-			storedMembers.add(new Member(memberStrSpltLst[MemberArg.MEMBER_ID.ordinal()],
-					memberStrSpltLst[MemberArg.NAME.ordinal()], memberStrSpltLst[MemberArg.LOYALTY_POINTS.ordinal()]));
+			member.setLoyaltyPoints(member.getLoyaltyPoints() + loyaltyLedger.getTotal(member.getIdentifier()));
+			catalog.put(member.getIdentifier(), member);
 		}
-		return storedMembers;
+
+		Set<String> identifiers = ConcurrentHashMap.newKeySet(catalog.size());
+		identifiers.addAll(catalog.keySet());
+		memberCatalog = catalog;
+		memberIdentifiers = identifiers;
+		return memberCatalog;
 	}
 
 	/**
-	 * (3.4.c.2)checks whether member exists If the
+	 * Parses a Row of the Member Data File
+	 * 
+	 * @param singleMember
+	 * @return Member, null if the row is not valid
+	 */
+	private Member parseMember(String singleMember) {
+		String[] memberStrSpltLst = singleMember.split(Constants.Data.FILE_SEPTR);
+
+		if (memberStrSpltLst.length != 3 || !isValidMemberData(memberStrSpltLst))
+			return null;
+
+		return new Member(memberStrSpltLst[MemberArg.MEMBER_ID.ordinal()], memberStrSpltLst[MemberArg.NAME.ordinal()],
+				memberStrSpltLst[MemberArg.LOYALTY_POINTS.ordinal()]);
+	}
+
+	/**
+	 * (3.4.c.2)checks whether member exists. The Identifiers are read without
+	 * the lock, so a customer who is not a Member is answered with no I/O
+	 * and no exception.
 	 * 
 	 * @param identifier
 	 * @return
-	 * @throws MemberException
 	 */
 	public boolean isMember(String identifier) {
-		try {
-			// The below line will throw an exception if the member is not
-			// present.
-			getMember(identifier);
-			return true;
-		} catch (MemberException e) {
-			return false;
+		Set<String> identifiers = memberIdentifiers;
+		if (identifiers == null) {
+			synchronized (this) {
+				try {
+					getMemberCatalog();
+				} catch (MemberException e) {
+					return false;
+				}
+				identifiers = memberIdentifiers;
+			}
 		}
+		return identifier != null && identifiers.contains(identifier);
 	}
 
 	/**
@@ -239,18 +325,82 @@ public class MemberManager {
 	 *            The new member object.
 	 * @return true if successful, else false
 	 */
-	public boolean updateMember(Member oldMember, Member updatedMember) throws MemberException {
-		// The below line will throw an exception if the member is not present.
-		if (isMember(oldMember.getIdentifier())) {
-			removeMember(oldMember.getIdentifier());
-			try {
-				memberData.add(updatedMember);
-				return true;
-			} catch (IOException e) {
-				throw new MemberException(MemberError.UNKNOWN_ERROR);
+	public synchronized boolean updateMember(Member oldMember, Member updatedMember) throws MemberException {
+		LinkedHashMap<String, Member> catalog = getMemberCatalog();
+		Member member = catalog.get(oldMember.getIdentifier());
+		if (member == null)
+			throw new MemberException(MemberError.MEMBER_NOT_PRESENT_IN_FILE);
+
+		Member memberRow = getMemberRow(member);
+		try {
+			// The old row is deleted and the new one added with one write,
+			// the new row keeps the points of the old one
+			if (!member.getIdentifier().equals(updatedMember.getIdentifier())
+					|| !member.getName().equals(updatedMember.getName())) {
+				Member updatedMemberRow = new Member(updatedMember.getIdentifier(), updatedMember.getName(),
+						memberRow.getLoyaltyPoints());
+				if (!memberData.update(Collections.singletonList(memberRow.toString()),
+						Collections.singletonList(updatedMemberRow)))
+					return false;
+				if (!member.getIdentifier().equals(updatedMember.getIdentifier()))
+					loyaltyLedger.add(member.getIdentifier(), -loyaltyLedger.getTotal(member.getIdentifier()),
+							Constants.Data.Member.LOYALTY_NO_TRANSACTION);
 			}
-		} else {
+
+			// Change of the points is appended to the ledger
+			loyaltyLedger.add(updatedMember.getIdentifier(),
+					updatedMember.getLoyaltyPoints() - memberRow.getLoyaltyPoints()
+							- loyaltyLedger.getTotal(updatedMember.getIdentifier()),
+					Constants.Data.Member.LOYALTY_NO_TRANSACTION);
+		} catch (IOException e) {
+			throw new MemberException(MemberError.UNKNOWN_ERROR);
+		}
+		catalog.remove(member.getIdentifier());
+		catalog.put(updatedMember.getIdentifier(), new Member(updatedMember));
+		if (!member.getIdentifier().equals(updatedMember.getIdentifier())) {
+			memberIdentifiers.add(updatedMember.getIdentifier());
+			memberIdentifiers.remove(member.getIdentifier());
+		}
+		return true;
+	}
+
+	/**
+	 * Add the change of loyalty points of a member in a transaction, the
+	 * change is appended to the Loyalty Ledger.
+	 * 
+	 * @param identifier
+	 * @param change
+	 * @param transactionId
+	 * @return Boolean
+	 * @throws MemberException
+	 */
+	public synchronized boolean addLoyaltyPoints(String identifier, int change, int transactionId)
+			throws MemberException {
+		Member member = getMemberCatalog().get(identifier);
+		if (member == null)
 			throw new MemberException(MemberError.MEMBER_NOT_PRESENT_IN_FILE);
+
+		try {
+			if (!loyaltyLedger.add(identifier, change, transactionId))
+				return false;
+		} catch (IOException e) {
+			throw new MemberException(MemberError.UNKNOWN_ERROR);
+		}
+		member.setLoyaltyPoints(member.getLoyaltyPoints() + change);
+		return true;
+	}
+
+	/**
+	 * Force the changes of loyalty points added to disk, whatever the
+	 * Durability of the Loyalty Ledger
+	 * 
+	 * @throws MemberException
+	 */
+	synchronized void forceLoyaltyPoints() throws MemberException {
+		try {
+			loyaltyLedger.force();
+		} catch (IOException e) {
+			throw new MemberException(MemberError.UNKNOWN_ERROR);
 		}
 	}
 
@@ -261,18 +411,36 @@ public class MemberManager {
 	 * @return Boolean
 	 * @throws IOException
 	 */
-	public boolean removeMember(String identifier) throws MemberException {
+	public synchronized boolean removeMember(String identifier) throws MemberException {
 		// Check if the member exists.
-		if (isMember(identifier)) {
-			Member member = getMember(identifier);
+		Member member = getMemberCatalog().get(identifier);
+		if (member != null) {
 			try {
-				memberData.delete(member.toString());
-				return true;
+				memberData.delete(getMemberRow(member).toString());
+				// A new member with the identifier starts without changes
+				loyaltyLedger.add(identifier, -loyaltyLedger.getTotal(identifier),
+						Constants.Data.Member.LOYALTY_NO_TRANSACTION);
 			} catch (Exception e) {
 				throw new MemberException(MemberError.UNKNOWN_ERROR);
 			}
+			memberCatalog.remove(identifier);
+			memberIdentifiers.remove(identifier);
+			return true;
 		} else {
 			throw new MemberException(MemberError.MEMBER_NOT_PRESENT_IN_FILE);
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Get the row of a member in the Member Data, with the points it had
+	 * before the changes in the Loyalty Ledger
+	 * 
+	 * @param member
+	 * @return Member
+	 */
+	private Member getMemberRow(Member member) {
+		Member memberRow = new Member(member);
+		memberRow.setLoyaltyPoints(member.getLoyaltyPoints() - loyaltyLedger.getTotal(member.getIdentifier()));
+		return memberRow;
+	}
+}
@@ -0,0 +1,143 @@
+package sg.edu.nus.iss.universitystore.data;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Clock of the store, the Data Managers read the date of the store from it
+ * instead of the system. The terminals are left running across days, so the
+ * date is read every time it is needed and the listeners are told when the
+ * day changes, they rebuild what they keep for the day before the new date is
+ * used.
+ * 
+ * The clock read can be replaced with a fixed or offset clock, so the dates
+ * seen by tests and benchmarks do not depend on the day they are run.
+ * 
+ * @author Sanjay
+ *
+ */
+public class StoreClock {
+
+	/**
+	 * Listener of the change of the day
+	 */
+	public interface DayChangeListener {
+
+		/**
+		 * Called once for each change of the day, before the new date is
+		 * returned by the clock
+		 * 
+		 * @param date
+		 *            New date of the store
+		 */
+		void onDayChange(LocalDate date);
+	}
+
+	/**
+	 * Instance of Store Clock
+	 */
+	private static volatile StoreClock instance;
+
+	/**
+	 * Clock read for the date
+	 */
+	private volatile Clock clock;
+
+	/**
+	 * Date last seen by the store
+	 */
+	private volatile LocalDate currentDate;
+
+	private final CopyOnWriteArrayList<DayChangeListener> dayChangeListeners;
+
+	/**
+	 * Get a single instance of Store Clock
+	 * 
+	 * @return Store Clock
+	 */
+	public static StoreClock getInstance() {
+		if (instance == null) {
+			synchronized (StoreClock.class) {
+				if (instance == null) {
+					instance = new StoreClock();
+				}
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * Store Clock Constructor, reads the system clock
+	 */
+	private StoreClock() {
+		clock = Clock.systemDefaultZone();
+		currentDate = LocalDate.now(clock);
+		dayChangeListeners = new CopyOnWriteArrayList<>();
+	}
+
+	/**
+	 * Get the clock read for the date
+	 * 
+	 * @return Clock
+	 */
+	public Clock getClock() {
+		return clock;
+	}
+
+	/**
+	 * Replace the clock read for the date. The listeners are told if the date
+	 * of the new clock is another day.
+	 * 
+	 * @param clock
+	 */
+	public void setClock(Clock clock) {
+		this.clock = clock;
+		today();
+	}
+
+	/**
+	 * Get the date of the store
+	 * 
+	 * @return Date
+	 */
+	public LocalDate today() {
+		LocalDate date = LocalDate.now(clock);
+		if (!date.equals(currentDate))
+			changeDay(date);
+		return date;
+	}
+
+	/**
+	 * Add a listener of the change of the day
+	 * 
+	 * @param listener
+	 */
+	public void addDayChangeListener(DayChangeListener listener) {
+		dayChangeListeners.add(listener);
+	}
+
+	/**
+	 * Remove a listener of the change of the day
+	 * 
+	 * @param listener
+	 */
+	public void removeDayChangeListener(DayChangeListener listener) {
+		dayChangeListeners.remove(listener);
+	}
+
+	/**
+	 * Tell the listeners of the new date, once even if several threads see it
+	 * 
+	 * @param date
+	 */
+	private synchronized void changeDay(LocalDate date) {
+		if (date.equals(currentDate))
+			return;
+
+		for (DayChangeListener listener : dayChangeListeners) {
+			listener.onDayChange(date);
+		}
+		currentDate = date;
+	}
+}
@@ -0,0 +1,64 @@
+package sg.edu.nus.iss.universitystore.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by keys, each key is guarded by the lock of its
+ * stripe. Keys of different stripes can be locked by different threads at the
+ * same time, keys of the same stripe are locked one at a time.
+ * 
+ * @author Sanjay
+ *
+ */
+class StripedLock {
+
+	private final ReentrantLock[] stripes;
+
+	/**
+	 * Striped Lock Constructor
+	 * 
+	 * @param stripeCount
+	 *            Number of locks
+	 */
+	StripedLock(int stripeCount) {
+		stripes = new ReentrantLock[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * Lock the stripes of the keys. The stripes are always locked in the same
+	 * order, so two threads locking keys of the same stripes cannot deadlock.
+	 * 
+	 * @param keys
+	 * @return Locks held, to be passed to {@link #unlock(ArrayList)}
+	 */
+	ArrayList<ReentrantLock> lock(Collection<String> keys) {
+		TreeSet<Integer> stripeIndexes = new TreeSet<>();
+		for (String key : keys) {
+			stripeIndexes.add(Math.floorMod(key.hashCode(), stripes.length));
+		}
+
+		ArrayList<ReentrantLock> locks = new ArrayList<>(stripeIndexes.size());
+		for (int stripeIndex : stripeIndexes) {
+			stripes[stripeIndex].lock();
+			locks.add(stripes[stripeIndex]);
+		}
+		return locks;
+	}
+
+	/**
+	 * Unlock the locks held
+	 * 
+	 * @param locks
+	 */
+	static void unlock(ArrayList<ReentrantLock> locks) {
+		for (int i = locks.size() - 1; i >= 0; i--) {
+			locks.get(i).unlock();
+		}
+	}
+}
@@ -4,18 +4,27 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import sg.edu.nus.iss.universitystore.constants.Constants;
 import sg.edu.nus.iss.universitystore.constants.ViewConstants;
 import sg.edu.nus.iss.universitystore.exception.DiscountException;
 import sg.edu.nus.iss.universitystore.exception.InventoryException;
+import sg.edu.nus.iss.universitystore.exception.InventoryException.InventoryError;
 import sg.edu.nus.iss.universitystore.exception.MemberException;
+import sg.edu.nus.iss.universitystore.exception.MemberException.MemberError;
 import sg.edu.nus.iss.universitystore.exception.TransactionException;
 import sg.edu.nus.iss.universitystore.exception.TransactionException.TransactionError;
+import sg.edu.nus.iss.universitystore.model.Cart;
 import sg.edu.nus.iss.universitystore.model.Discount;
 import sg.edu.nus.iss.universitystore.model.Member;
 import sg.edu.nus.iss.universitystore.model.Product;
+import sg.edu.nus.iss.universitystore.model.SalesSummary;
 import sg.edu.nus.iss.universitystore.model.Transaction;
 import sg.edu.nus.iss.universitystore.model.TransactionItem;
 import sg.edu.nus.iss.universitystore.model.TransactionReport;
@@ -52,12 +61,47 @@ public class TransactionManager {
 	/**
 	 * The singleton instance of this class
 	 */
-	private static TransactionManager instance;
+	private static volatile TransactionManager instance;
 
 	/**
-	 * The data file where the transactions will be written.
+	 * The data file where the transactions were written before the log was
+	 * partitioned by date, its records are migrated to the log at startup.
 	 */
-	private DataFile<Transaction> transactionData;
+	private DataFile<String> transactionData;
+
+	/**
+	 * The log where the transactions will be written.
+	 */
+	private TransactionLog transactionLog;
+
+	/**
+	 * Identifier of the last transaction written, recovered from the tails of
+	 * the log at startup
+	 */
+	private AtomicInteger lastTransactionId;
+
+	/**
+	 * Quantity sold and revenue of each product on each date.
+	 */
+	private SalesRollup salesRollup;
+
+	/**
+	 * Journal to which each checkout is committed before it is applied to the
+	 * data files.
+	 */
+	private CheckoutJournal checkoutJournal;
+
+	/**
+	 * Locks of the members of the checkouts in progress, the products are
+	 * locked with the locks of the inventory manager.
+	 */
+	private final StripedLock checkoutLocks = new StripedLock(Constants.Data.Transaction.CHECKOUT_LOCK_STRIPES);
+
+	/**
+	 * Lock held while a transaction id is allocated and the transaction is
+	 * appended to the log, so the log is in the order of the ids.
+	 */
+	private final Object transactionOrderLock = new Object();
 
 	/**
 	 * Instance of Inventory Manager.
@@ -107,28 +151,102 @@ public class TransactionManager {
 	 */
 	private void initialize() throws DiscountException, MemberException, InventoryException, IOException {
 		transactionData = new DataFile<>(Constants.Data.FileName.TRANSACTION_DAT);
+		transactionLog = new TransactionLog();
+		transactionLog.migrate(transactionData);
+		lastTransactionId = new AtomicInteger(getLastTransactionId());
 		discountManager = DiscountManager.getInstance();
 		inventoryManager = InventoryManager.getInstance();
 		memberManager = MemberManager.getInstance();
+		checkoutJournal = new CheckoutJournal();
+		salesRollup = new SalesRollup();
+		recoverCheckouts();
 	}
 
 	/**
-	 * Method to get the current transaction id that will be newly created.
+	 * Apply again the checkouts which were committed to the journal and may
+	 * not have been applied before a crash. The log is looked up for the sale
+	 * lines of each checkout, a later checkout may have been logged after the
+	 * append of an earlier one failed. A checkout stays in the journal until
+	 * it has been applied.
+	 * 
+	 * The rollup is rebuilt from the log if it was lost or the log was written
+	 * without it. The rebuilt rollup holds the sales of the checkouts, which
+	 * are then marked as added to it.
 	 * 
-	 * @return The transaction id.
 	 * @throws IOException
-	 * @throws StoreException
+	 * @throws InventoryException
+	 * @throws MemberException
 	 */
-	private int getTransactionId() throws TransactionException {
-		// Get the transactionId
-		int transactionId = 1;
-		ArrayList<TransactionReport> allTransactions = getTransactionReport();
+	private void recoverCheckouts() throws IOException, InventoryException, MemberException {
+		ArrayList<CheckoutJournal.Entry> entries = checkoutJournal.getCommittedEntries();
+		for (CheckoutJournal.Entry entry : entries) {
+			ArrayList<String> saleLines = entry.getSaleLines();
+			if (!saleLines.isEmpty()) {
+				LocalDate date = LocalDate
+						.parse(saleLines.get(0).split(Constants.Data.FILE_SEPTR)[TransactionArg.DATE.ordinal()]);
+				if (!transactionLog.contains(date, entry.getTransactionId()))
+					transactionLog.add(date, String.join(Constants.Common.NEW_LINE, saleLines));
+			}
+			lastTransactionId.accumulateAndGet(entry.getTransactionId(), Math::max);
+		}
+
+		if (salesRollup.isEmpty() && lastTransactionId.get() > 0) {
+			salesRollup.rebuild(transactionLog, inventoryManager.getProductsById());
+			salesRollup.force();
+			for (CheckoutJournal.Entry entry : entries) {
+				if (!entry.isRollupApplied())
+					checkoutJournal.rollupApplied(entry);
+			}
+		}
 
-		if (allTransactions.size() != 0) {
-			TransactionReport lastTransaction = allTransactions.get(allTransactions.size() - 1);
-			transactionId = (Integer.valueOf(lastTransaction.getIdentifier())) + 1;
+		for (CheckoutJournal.Entry entry : entries) {
+			boolean applied = applyStockAndLoyaltyPoints(entry);
+			if (applySales(entry) && applied)
+				checkoutJournal.applied();
 		}
-		return transactionId;
+	}
+
+	/**
+	 * Recover the identifier of the last transaction. Transactions are appended
+	 * in the order of their identifiers, so it is the highest identifier of the
+	 * last lines of the segments of the log. If a last line cannot be read the
+	 * whole log is scanned for the highest identifier.
+	 * 
+	 * @return The last transaction id, 0 if there are no transactions.
+	 * @throws IOException
+	 */
+	private int getLastTransactionId() throws IOException {
+		int lastTransactionId = 0;
+		try {
+			for (String lastTransaction : transactionLog.getLastOfSegments()) {
+				String identifier = lastTransaction
+						.split(Constants.Data.FILE_SEPTR)[TransactionArg.IDENTIFIER.ordinal()];
+				lastTransactionId = Math.max(lastTransactionId, Integer.parseInt(identifier));
+			}
+			return lastTransactionId;
+		} catch (NumberFormatException numberFormatExp) {
+			int[] maxTransactionId = { 0 };
+			transactionLog.forEach(LocalDate.MIN, LocalDate.MAX, transaction -> {
+				try {
+					String transactionStr = transaction.toString();
+					String identifier = transactionStr.substring(0, transactionStr.indexOf(Constants.Data.FILE_SEPTR));
+					maxTransactionId[0] = Math.max(maxTransactionId[0], Integer.parseInt(identifier));
+				} catch (IndexOutOfBoundsException | NumberFormatException exp) {
+					// Skip lines which are not transactions
+				}
+			});
+			return maxTransactionId[0];
+		}
+	}
+
+	/**
+	 * Method to get the transaction id that will be newly created. Each call
+	 * allocates a new id, so ids are never reused.
+	 * 
+	 * @return The transaction id.
+	 */
+	private int getTransactionId() {
+		return lastTransactionId.incrementAndGet();
 	}
 
 	/**
@@ -150,6 +268,10 @@ public class TransactionManager {
 			} catch (InventoryException inventoryExp) {
 				throw new TransactionException(TransactionError.OTHER_ERROR, inventoryExp.getMessage());
 			}
+			if (product == null) {
+				throw new TransactionException(TransactionError.OTHER_ERROR,
+						InventoryError.PRODUCT_NOT_AVAILABLE.toString());
+			}
 			int availableQuantity = product.getQuantity();
 
 			if (availableQuantity < transactionItem.getQuantity()) {
@@ -159,22 +281,168 @@ public class TransactionManager {
 	}
 
 	/**
-	 * Method to update the inventory quantity after the sale has taken place.
+	 * Method to commit a checkout to the journal and apply it to the data
+	 * files. The caller holds the locks of the products and the member. Once
+	 * the checkout is committed the sale is made, a part of it which then
+	 * fails is done again at the next start and the checkout stays in the
+	 * journal until then.
 	 * 
-	 * @param transactionItem
-	 *            The transaction item that needs to be updated.
+	 * @param arrTransactionItem
+	 *            The list of transaction items in the transaction.
+	 * @param memberId
+	 *            The member who is associated with the transaction.
+	 * @param totalAmount
+	 *            The total amount of the transaction.
+	 * @param usedLoyaltyPoints
+	 *            The loyalty points that was used in the transaction.
+	 * @return true if the checkout was committed, else false.
+	 * @throws IOException
+	 * @throws InventoryException
+	 * @throws MemberException
+	 */
+	private boolean checkout(ArrayList<TransactionItem> arrTransactionItem, String memberId, float totalAmount,
+			int usedLoyaltyPoints) throws IOException, InventoryException, MemberException {
+		for (TransactionItem transactionItem : arrTransactionItem) {
+			if (inventoryManager.findProduct(transactionItem.getProduct().getIdentifier()) == null)
+				throw new InventoryException(InventoryError.PRODUCT_NOT_AVAILABLE);
+		}
+
+		// The change of loyalty points of the member
+		Integer loyaltyPoints = null;
+		if (!memberId.equals(ViewConstants.Labels.STR_PUBLIC)) {
+			if (!memberManager.isMember(memberId))
+				throw new MemberException(MemberError.MEMBER_NOT_PRESENT_IN_FILE);
+			// Calculate the loyalty points earned
+			int earnedLoyaltyPoints = (int) totalAmount
+					/ Constants.Data.Transaction.CURRENCY_TO_LOYALTY_POINTS_CONVERSION_RATE;
+			loyaltyPoints = earnedLoyaltyPoints - usedLoyaltyPoints;
+		}
+
+		Transaction transaction;
+		CheckoutJournal.Entry entry;
+		boolean logged;
+		synchronized (transactionOrderLock) {
+			// Get the transactionId
+			int transactionId = getTransactionId();
+			// Create a new Transaction object
+			transaction = new Transaction(transactionId, arrTransactionItem, memberId,
+					StoreClock.getInstance().today());
+			entry = new CheckoutJournal.Entry(transactionId);
+			entry.addSale(transaction.toString());
+			for (TransactionItem transactionItem : arrTransactionItem) {
+				Product product = transactionItem.getProduct();
+				entry.setPrice(product.getIdentifier(), product.getPrice());
+				entry.addStock(product.getIdentifier(), -transactionItem.getQuantity());
+			}
+			if (loyaltyPoints != null)
+				entry.addLoyaltyPoints(memberId, loyaltyPoints);
+
+			// The checkout is durable once committed, a failure after this is
+			// recovered from the journal at the next start
+			if (!checkoutJournal.commit(entry))
+				return false;
+			logged = addToLog(transaction);
+		}
+
+		boolean applied = false;
+		try {
+			applied = applyStockAndLoyaltyPoints(entry);
+			applied = applySales(entry) && applied;
+		} catch (IOException | InventoryException | MemberException exp) {
+			applied = false;
+		} finally {
+			if (applied && logged) {
+				try {
+					checkoutJournal.applied();
+				} catch (IOException ioExp) {
+					// The journal is emptied at the next start
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Method to append a committed transaction to the log.
+	 * 
+	 * @param transaction
+	 *            The transaction committed to the journal.
+	 * @return true if the transaction was appended, else false and it is
+	 *         appended from the journal at the next start.
+	 */
+	private boolean addToLog(Transaction transaction) {
+		try {
+			return transactionLog.add(transaction);
+		} catch (IOException ioExp) {
+			return false;
+		}
+	}
+
+	/**
+	 * Method to lock the products and the member of a checkout. The products
+	 * are locked first, as updates of a product take its lock alone. Public
+	 * checkouts share no member lock.
+	 * 
+	 * @param arrTransactionItem
+	 *            The list of transaction items in the transaction.
+	 * @param memberId
+	 *            The member who is associated with the transaction.
+	 * @return The locks held.
+	 */
+	private ArrayList<ReentrantLock> lockCheckout(ArrayList<TransactionItem> arrTransactionItem, String memberId) {
+		ArrayList<String> productIds = new ArrayList<>();
+		for (TransactionItem transactionItem : arrTransactionItem) {
+			productIds.add(transactionItem.getProduct().getIdentifier());
+		}
+		ArrayList<ReentrantLock> locks = inventoryManager.getProductLocks().lock(productIds);
+		if (memberId != null && !memberId.equals(ViewConstants.Labels.STR_PUBLIC))
+			locks.addAll(checkoutLocks.lock(Collections.singleton(memberId)));
+		return locks;
+	}
+
+	/**
+	 * Method to apply the changes of the quantities of the products and of the
+	 * loyalty points of the member of a checkout. Each part is forced to disk
+	 * and then marked in the journal, so a part marked is never lost, and is
+	 * skipped when the checkout is applied again. Products and members which
+	 * were removed since are skipped.
+	 * 
+	 * @param entry
+	 *            The checkout committed to the journal.
+	 * @return true if all updates are successful, else false.
 	 * @throws IOException
-	 * @throws StoreException
 	 * @throws InventoryException
+	 * @throws MemberException
 	 */
-	private boolean updateInventoryAfterSale(Transaction transaction) throws InventoryException {
+	private boolean applyStockAndLoyaltyPoints(CheckoutJournal.Entry entry)
+			throws IOException, InventoryException, MemberException {
 		boolean status = true;
-		for (int i = 0; i < transaction.getTransactionItemList().size(); i++) {
-			TransactionItem transactionItem = transaction.getTransactionItemList().get(i);
-			Product product = transactionItem.getProduct();
-			int updatedQuantity = product.getQuantity() - transactionItem.getQuantity();
-			product.setQuantity(updatedQuantity);
-			if (!inventoryManager.updateProductForTransaction(product)) {
+		if (!entry.isStockApplied()) {
+			// The products of the whole cart are updated with one write
+			HashMap<String, Integer> stockDeltas = new HashMap<>();
+			for (Map.Entry<String, Integer> stock : entry.getStock().entrySet()) {
+				if (inventoryManager.findProduct(stock.getKey()) != null)
+					stockDeltas.put(stock.getKey(), stock.getValue());
+			}
+			if (inventoryManager.applyStockDeltas(stockDeltas)) {
+				inventoryManager.forceProductData();
+				checkoutJournal.stockApplied(entry);
+			} else {
+				status = false;
+			}
+		}
+
+		if (!entry.isLoyaltyPointsApplied()) {
+			boolean loyaltyStatus = true;
+			for (Map.Entry<String, Integer> loyaltyPoints : entry.getLoyaltyPoints().entrySet()) {
+				if (memberManager.isMember(loyaltyPoints.getKey()) && !memberManager
+						.addLoyaltyPoints(loyaltyPoints.getKey(), loyaltyPoints.getValue(), entry.getTransactionId()))
+					loyaltyStatus = false;
+			}
+			if (loyaltyStatus) {
+				memberManager.forceLoyaltyPoints();
+				checkoutJournal.loyaltyPointsApplied(entry);
+			} else {
 				status = false;
 			}
 		}
@@ -182,32 +450,40 @@ public class TransactionManager {
 	}
 
 	/**
-	 * Method to update the loyalty points of the member after a transaction.
-	 * @param memberId The memberId associated with the transaction.
-	 * @param totalAmount The total amount of the transaction.
-	 * @param usedLoyaltyPoints The loyalty points that was used in the transaction. 
-	 * @return true if the update is successful, else false. 
-	 * @throws TransactionException
+	 * Method to add the sales of a checkout to the sales rollup at the prices
+	 * of sale journaled. The rollup is forced to disk and then marked in the
+	 * journal, and is skipped when the checkout is applied again.
+	 * 
+	 * @param entry
+	 *            The checkout committed to the journal.
+	 * @return true if the sales were added, else false.
+	 * @throws IOException
+	 * @throws InventoryException
 	 */
-	private boolean updateLoyaltyPointsOfMemberAfterSale(String memberId, float totalAmount, int usedLoyaltyPoints)
-			throws TransactionException {
-		// Update the member loyalty points
-		if (!memberId.equals(ViewConstants.Labels.STR_PUBLIC)) {
-			try {
-				// Get member to update the loyalty point
-				Member updatedMember = memberManager.getMember(memberId);
-				// Calculate the loyalty points earned
-				int earnedLoyaltyPoints = (int) totalAmount / Constants.Data.Transaction.CURRENCY_TO_LOYALTY_POINTS_CONVERSION_RATE;
-				// Set the loyalty points to the new member
-				updatedMember.setLoyaltyPoints(updatedMember.getLoyaltyPoints() + earnedLoyaltyPoints - usedLoyaltyPoints);
-				// Update the dB
-				return memberManager.updateMember(memberManager.getMember(memberId), updatedMember);
-			} catch (MemberException e) {
-				throw new TransactionException(TransactionError.UNABLE_TO_UPDATE_LOYALTY_POINTS);
+	private boolean applySales(CheckoutJournal.Entry entry) throws IOException, InventoryException {
+		if (entry.isRollupApplied())
+			return true;
+
+		for (String saleLine : entry.getSaleLines()) {
+			String[] saleLineSplt = saleLine.split(Constants.Data.FILE_SEPTR);
+			String productId = saleLineSplt[TransactionArg.PRODUCT_ID.ordinal()];
+			Double price = entry.getPrices().get(productId);
+			if (price == null) {
+				// Products which were removed since are left out, as when the
+				// rollup is rebuilt
+				Product product = inventoryManager.findProduct(productId);
+				if (product == null)
+					continue;
+				price = product.getPrice();
 			}
+			salesRollup.add(LocalDate.parse(saleLineSplt[TransactionArg.DATE.ordinal()]), productId,
+					Integer.parseInt(saleLineSplt[TransactionArg.QUANTITY.ordinal()]), price);
 		}
+		salesRollup.force();
+		checkoutJournal.rollupApplied(entry);
 		return true;
 	}
+
 	/***********************************************************/
 	// Public Methods
 	/***********************************************************/
@@ -245,40 +521,7 @@ public class TransactionManager {
 	 * @throws IOException
 	 */
 	public ArrayList<TransactionReport> getTransactionReport() throws TransactionException {
-		ArrayList<TransactionReport> transactionList = new ArrayList<>();
-
-		String[] transactionStrList;
-		try {
-			transactionStrList = transactionData.getAll();
-		} catch (IOException e) {
-			throw new TransactionException(TransactionError.UNKNOWN_ERROR);
-		}
-
-		for (String transactionStr : transactionStrList) {
-			// If line in Data file is empty, skip line
-			if (transactionStr.isEmpty())
-				continue;
-
-			String[] transactionStrSplt = transactionStr.split(Constants.Data.FILE_SEPTR);
-			String productId = transactionStrSplt[TransactionArg.PRODUCT_ID.ordinal()];
-			Product product;
-			try {
-				product = InventoryManager.getInstance().findProduct(productId);
-				if (product == null) {
-					continue;
-				}
-				int quantity = Integer.valueOf(transactionStrSplt[TransactionArg.QUANTITY.ordinal()]);
-				String memberId = transactionStrSplt[TransactionArg.MEMBER_ID.ordinal()];
-				String date = transactionStrSplt[TransactionArg.DATE.ordinal()];
-				int Identifider = Integer.valueOf(transactionStrSplt[TransactionArg.IDENTIFIER.ordinal()]);
-				TransactionItem transactionitem = new TransactionItem(product, quantity);
-				transactionList.add(new TransactionReport(Identifider, transactionitem, memberId, date));
-			} catch (InventoryException e) {
-				e.printStackTrace();
-			}
-		}
-		sortTransactionReport(transactionList);
-		return transactionList;
+		return getTransactionReport(LocalDate.MIN, LocalDate.MAX);
 	}
 
 	/**
@@ -290,46 +533,66 @@ public class TransactionManager {
 	 */
 	public ArrayList<TransactionReport> getTransactionReport(LocalDate startDate, LocalDate endDate)
 			throws TransactionException {
-		ArrayList<TransactionReport> transactionList = new ArrayList<>();
+		// Load the products once and join the transaction lines against them
+		HashMap<String, Product> products;
+		try {
+			products = inventoryManager.getProductsById();
+		} catch (InventoryException inventoryExp) {
+			throw new TransactionException(TransactionError.OTHER_ERROR, inventoryExp.getMessage());
+		}
 
-		String[] transactionStrList;
+		// Lines are grouped by product as they are read, so the report is
+		// sorted by product id by sorting only the products which were sold
+		HashMap<String, ArrayList<TransactionReport>> reportsByProduct = new HashMap<>();
+		// Many lines share a date, so each date is parsed once
+		HashMap<String, LocalDate> dates = new HashMap<>();
 		try {
-			transactionStrList = transactionData.getAll();
+			transactionLog.forEach(startDate, endDate, transaction -> {
+				String[] transactionStrSplt = transaction.toString().split(Constants.Data.FILE_SEPTR);
+				LocalDate date = dates.computeIfAbsent(transactionStrSplt[TransactionArg.DATE.ordinal()],
+						LocalDate::parse);
+				if (date.isBefore(startDate) || date.isAfter(endDate))
+					return;
+
+				String productId = transactionStrSplt[TransactionArg.PRODUCT_ID.ordinal()];
+				Product product = products.get(productId);
+				if (product == null)
+					return;
+
+				int quantity = Integer.parseInt(transactionStrSplt[TransactionArg.QUANTITY.ordinal()]);
+				String memberId = transactionStrSplt[TransactionArg.MEMBER_ID.ordinal()];
+				int identifier = Integer.parseInt(transactionStrSplt[TransactionArg.IDENTIFIER.ordinal()]);
+				TransactionItem transactionItem = new TransactionItem(product, quantity);
+				reportsByProduct.computeIfAbsent(productId, id -> new ArrayList<>())
+						.add(new TransactionReport(identifier, transactionItem, memberId, date));
+			});
 		} catch (IOException e) {
 			throw new TransactionException(TransactionError.UNKNOWN_ERROR);
 		}
 
-		for (String transactionStr : transactionStrList) {
-			// If line in Data file is empty, skip line
-			if (transactionStr.isEmpty())
-				continue;
+		ArrayList<String> productIds = new ArrayList<>(reportsByProduct.keySet());
+		Collections.sort(productIds);
 
-			String[] transactionStrSplt = transactionStr.split(Constants.Data.FILE_SEPTR);
-			String date = transactionStrSplt[TransactionArg.DATE.ordinal()];
-			LocalDate localdate = LocalDate.parse(date);
-			if (localdate.isBefore(startDate) || localdate.isAfter(endDate)) {
-				continue;
-			}
-			String productId = transactionStrSplt[TransactionArg.PRODUCT_ID.ordinal()];
-			Product product;
-			try {
-				product = InventoryManager.getInstance().findProduct(productId);
-				if (product == null) {
-					continue;
-				}
-				int quantity = Integer.valueOf(transactionStrSplt[TransactionArg.QUANTITY.ordinal()]);
-				String memberId = transactionStrSplt[TransactionArg.MEMBER_ID.ordinal()];
-				int Identifider = Integer.valueOf(transactionStrSplt[TransactionArg.IDENTIFIER.ordinal()]);
-				TransactionItem transactionitem = new TransactionItem(product, quantity);
-				transactionList.add(new TransactionReport(Identifider, transactionitem, memberId, date));
-			} catch (InventoryException e) {
-				e.printStackTrace();
-			}
+		ArrayList<TransactionReport> transactionList = new ArrayList<>();
+		for (String productId : productIds) {
+			transactionList.addAll(reportsByProduct.get(productId));
 		}
-		sortTransactionReport(transactionList);
 		return transactionList;
 	}
 
+	/**
+	 * Get the quantity sold and revenue of each category and each product over
+	 * the range of dates from the daily sales rollup
+	 * 
+	 * @param startDate
+	 * @param endDate
+	 * @return Summaries sorted by identifier, each category followed by its
+	 *         products
+	 */
+	public ArrayList<SalesSummary> getSalesSummary(LocalDate startDate, LocalDate endDate) {
+		return salesRollup.getSalesSummary(startDate, endDate);
+	}
+
 	/**
 	 * use default way to sort transaction Report by(product id)
 	 * 
@@ -368,14 +631,11 @@ public class TransactionManager {
 			return total;
 		}
 
-		Discount discount;
-		try {
-			discount = discountManager.findDiscount(discountId);
+		Discount discount = discountManager.lookupDiscount(discountId);
+		if (discount != null) {
 			total *= ((1 - discount.getPercentage() * 0.01));
-			return total;
-		} catch (DiscountException e) {
-			return total;
 		}
+		return total;
 	}
 
 	/**
@@ -392,56 +652,94 @@ public class TransactionManager {
 	 */
 	public boolean addTransaction(ArrayList<TransactionItem> arrTransactionItem, String discountId, String memberId, int loyaltyPoints)
 			throws TransactionException {
-		// Get the transactionId
-		int transactionId = getTransactionId();
-		// Check if the requested item exists, else throw exceptions
-		checkIfRequestedQuantityExistsInInventory(arrTransactionItem);
-
-		// Check if it valid discount
-		if (discountId != null&& discountId.length() != 0) {
-			// Check Discount Id
-			try {
-				discountManager.findDiscount(discountId);
-			} catch (DiscountException e1) {
-				throw new TransactionException(TransactionError.INVALID_DISCOUNT_ID);
+		return addTransaction(arrTransactionItem, discountId, memberId, loyaltyPoints,
+				getTotal(arrTransactionItem, discountId));
+	}
+
+	/**
+	 * Method to add write the transaction of a priced cart to the file, the
+	 * total of the cart is used as it is.
+	 * 
+	 * @param cart
+	 *            The cart with the items and the discount applied.
+	 * @param memberId
+	 *            The member who is associated with the transaction.
+	 * @param loyaltyPoints
+	 *            The loyalty Points that was redeemed for this transaction
+	 * @return true is successfully written to file, else false.
+	 * @throws TransactionException
+	 */
+	public boolean addTransaction(Cart cart, String memberId, int loyaltyPoints) throws TransactionException {
+		Discount discount = cart.getDiscount();
+		// The discount of the public is not a discount of the file
+		String discountId = discount == null
+				|| discount.getCode().equals(Constants.Data.Discount.Member.Public.CODE) ? null : discount.getCode();
+		return addTransaction(cart.getTransactionItemList(), discountId, memberId, loyaltyPoints, cart.getTotal());
+	}
+
+	/**
+	 * Method to add write transactions to the file.
+	 * 
+	 * @param arrTransactionItem
+	 *            The list of transaction items in the transaction.
+	 * @param discountId
+	 *            The discountId applied to the transaction.
+	 * @param memberId
+	 *            The member who is associated with the transaction.
+	 * @param loyaltyPoints
+	 *            The loyalty Points that was redeemed for this transaction
+	 * @param totalAmount
+	 *            The total amount of the transaction after the discount.
+	 * @return true is successfully written to file, else false.
+	 * @throws TransactionException
+	 */
+	private boolean addTransaction(ArrayList<TransactionItem> arrTransactionItem, String discountId, String memberId,
+			int loyaltyPoints, float totalAmount) throws TransactionException {
+		// Checkouts of the same products or member run one at a time, so the
+		// stock and loyalty points checked are not changed before the update
+		ArrayList<ReentrantLock> locks = lockCheckout(arrTransactionItem, memberId);
+		try {
+			// Check if the requested item exists, else throw exceptions
+			checkIfRequestedQuantityExistsInInventory(arrTransactionItem);
+
+			// Check if it valid discount
+			if (discountId != null&& discountId.length() != 0) {
+				// Check Discount Id
+				if (!discountManager.hasDiscount(discountId)) {
+					throw new TransactionException(TransactionError.INVALID_DISCOUNT_ID);
+				}
 			}
-		}
 
-		// Check if it is a valid member & also the loyalty points.
-		if (memberId != null && memberId.length() != 0) {
-			if (!memberId.equals(ViewConstants.Labels.STR_PUBLIC)) {
-				try {
-					Member member = memberManager.getMember(memberId);
+			// Check if it is a valid member & also the loyalty points.
+			if (memberId != null && memberId.length() != 0) {
+				if (!memberId.equals(ViewConstants.Labels.STR_PUBLIC)) {
+					Member member;
+					try {
+						member = memberManager.findMember(memberId);
+					} catch (MemberException e) {
+						member = null;
+					}
+					if (member == null) {
+						throw new TransactionException(TransactionError.INVALID_MEMBER_ID);
+					}
 					if (member.getLoyaltyPoints() != Constants.Data.Member.LOYALTY_NEW_MEMBER
 							&& member.getLoyaltyPoints() < loyaltyPoints) {
 						throw new TransactionException(TransactionError.INVALID_LOYALTY_POINTS_APPLIED);
 					}
-				} catch (MemberException e) {
-					throw new TransactionException(TransactionError.INVALID_MEMBER_ID);
 				}
+			} else {
+				throw new TransactionException(TransactionError.INVALID_MEMBER_ID);
 			}
-		} else {
-			throw new TransactionException(TransactionError.INVALID_MEMBER_ID);
-		}
 
-		// Loop through all the elements
-		// Create a new Transaction object
-		Transaction transaction = new Transaction(transactionId, arrTransactionItem, memberId, LocalDate.now());
-		try {
-			transactionData.add(transaction);
-			if (updateInventoryAfterSale(transaction)) {
-				return updateLoyaltyPointsOfMemberAfterSale(memberId, getTotal(arrTransactionItem, discountId), loyaltyPoints);
-			} else {
-				// TODO : Remove all the items that have been written because
-				// something went wrong
-				// Revert the constant value as well.
+			try {
+				return checkout(arrTransactionItem, memberId, totalAmount, loyaltyPoints);
+			} catch (Exception e) {
+				// The checkout is applied again at the next start if it was
+				// committed to the journal
+				return false;
 			}
-		} catch (Exception e) {
-			// TODO : Remove all the items that have been written because
-			// something went wrong
-			// Revert the constant value as well.
-			return false;
+		} finally {
+			StripedLock.unlock(locks);
 		}
-		return false;
 	}
 }
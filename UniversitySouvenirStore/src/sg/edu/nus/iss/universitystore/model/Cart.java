@@ -0,0 +1,162 @@
+package sg.edu.nus.iss.universitystore.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Cart Domain Object, the items of a sale in progress with the Discount
+ * applied to it. Items are kept by Product Identifier and the subtotal is kept
+ * as items are added and removed, so the total of the cart is known without
+ * summing its items.
+ * 
+ * @author Sanjay
+ *
+ */
+public class Cart {
+
+	/***********************************************************/
+	// Instance Variables
+	/***********************************************************/
+	/**
+	 * Items in the order they were first scanned
+	 */
+	private ArrayList<TransactionItem> itemList;
+
+	/**
+	 * Items by Product Identifier
+	 */
+	private HashMap<String, TransactionItem> items;
+
+	/**
+	 * Total of the items before the Discount
+	 */
+	private double subtotal;
+
+	/**
+	 * Discount applied to the cart, null if none
+	 */
+	private Discount discount;
+
+	/***********************************************************/
+	// Constructors
+	/***********************************************************/
+
+	/**
+	 * Constructor for an empty cart without a Discount
+	 */
+	public Cart() {
+		itemList = new ArrayList<>();
+		items = new HashMap<>();
+	}
+
+	/***********************************************************/
+	// Getters & Setters
+	/***********************************************************/
+
+	/**
+	 * @return the items in the order they were first scanned
+	 */
+	public ArrayList<TransactionItem> getTransactionItemList() {
+		return itemList;
+	}
+
+	/**
+	 * @return the discount
+	 */
+	public Discount getDiscount() {
+		return discount;
+	}
+
+	/**
+	 * @param discount
+	 */
+	public void setDiscount(Discount discount) {
+		this.discount = discount;
+	}
+
+	/**
+	 * @return the total of the items before the Discount
+	 */
+	public float getSubtotal() {
+		return (float) subtotal;
+	}
+
+	/***********************************************************/
+	// Public Methods
+	/***********************************************************/
+
+	/**
+	 * Add a quantity of a Product, a Product already in the cart has its
+	 * quantity increased
+	 * 
+	 * @param product
+	 * @param quantity
+	 * @return Item of the Product
+	 */
+	public TransactionItem add(Product product, int quantity) {
+		TransactionItem item = items.get(product.getIdentifier());
+		if (item == null) {
+			item = new TransactionItem(product, 0);
+			items.put(product.getIdentifier(), item);
+			itemList.add(item);
+		}
+
+		item.setQuantity(item.getQuantity() + quantity);
+		subtotal += item.getProduct().getPrice() * quantity;
+		return item;
+	}
+
+	/**
+	 * Remove the item at a row
+	 * 
+	 * @param row
+	 * @return Item removed
+	 */
+	public TransactionItem remove(int row) {
+		TransactionItem item = itemList.remove(row);
+		items.remove(item.getProduct().getIdentifier());
+		// An empty cart keeps no rounding left over from the items
+		subtotal = itemList.isEmpty() ? 0 : subtotal - item.getProduct().getPrice() * item.getQuantity();
+		return item;
+	}
+
+	/**
+	 * Remove all items, the Discount is kept
+	 */
+	public void clear() {
+		itemList.clear();
+		items.clear();
+		subtotal = 0;
+	}
+
+	/**
+	 * Get the quantity of a Product in the cart
+	 * 
+	 * @param productId
+	 * @return Quantity, 0 if the Product is not in the cart
+	 */
+	public int getQuantity(String productId) {
+		TransactionItem item = items.get(productId);
+		return item == null ? 0 : item.getQuantity();
+	}
+
+	/**
+	 * Checks if the cart has no items
+	 * 
+	 * @return Boolean
+	 */
+	public boolean isEmpty() {
+		return itemList.isEmpty();
+	}
+
+	/**
+	 * Get the total of the items after the Discount
+	 * 
+	 * @return Total
+	 */
+	public float getTotal() {
+		if (discount == null)
+			return (float) subtotal;
+		return (float) (subtotal * (1 - discount.getPercentage() * 0.01));
+	}
+}
@@ -51,6 +51,17 @@ public class Member {
 
 	}
 
+	/**
+	 * Member Copy Constructor
+	 * 
+	 * @param member
+	 */
+	public Member(Member member) {
+		this.identifier = member.identifier;
+		this.name = member.name;
+		this.loyaltyPoints = member.loyaltyPoints;
+	}
+
 	/**
 	 * Constructor for creating a new member instance.
 	 * This will be used when creating a new member.
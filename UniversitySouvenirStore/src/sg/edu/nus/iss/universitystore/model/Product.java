@@ -48,6 +48,22 @@ public class Product {
 		this.reorderQuantity = Integer.parseInt(reorderQuantity);
 	}
 
+	/**
+	 * Product Copy Constructor
+	 * 
+	 * @param product
+	 */
+	public Product(Product product) {
+		this.identifier = product.identifier;
+		this.name = product.name;
+		this.description = product.description;
+		this.quantity = product.quantity;
+		this.barCode = product.barCode;
+		this.price = product.price;
+		this.reorderThreshold = product.reorderThreshold;
+		this.reorderQuantity = product.reorderQuantity;
+	}
+
 	/***********************************************************/
 	// Getters & Setters
 	/***********************************************************/
@@ -0,0 +1,88 @@
+package sg.edu.nus.iss.universitystore.model;
+
+/**
+ * Sales Summary Domain Object, the quantity sold and the revenue of a Product
+ * or a Category
+ * 
+ * @author Sanjay
+ *
+ */
+public class SalesSummary {
+
+	/***********************************************************/
+	// Instance Variables
+	/***********************************************************/
+	/**
+	 * Product Identifier or Category Code
+	 */
+	private String identifier;
+	private int quantity;
+	private double revenue;
+
+	/***********************************************************/
+	// Constructors
+	/***********************************************************/
+
+	/**
+	 * Sales Summary Constructor
+	 * 
+	 * @param identifier
+	 * @param quantity
+	 * @param revenue
+	 */
+	public SalesSummary(String identifier, int quantity, double revenue) {
+		this.identifier = identifier;
+		this.quantity = quantity;
+		this.revenue = revenue;
+	}
+
+	/***********************************************************/
+	// Getters & Setters
+	/***********************************************************/
+
+	/**
+	 * @return the identifier
+	 */
+	public String getIdentifier() {
+		return identifier;
+	}
+
+	/**
+	 * @return the quantity
+	 */
+	public int getQuantity() {
+		return quantity;
+	}
+
+	/**
+	 * @return the revenue
+	 */
+	public double getRevenue() {
+		return revenue;
+	}
+
+	/***********************************************************/
+	// Public Methods
+	/***********************************************************/
+
+	/**
+	 * Add the quantity and revenue of a sale
+	 * 
+	 * @param quantity
+	 * @param revenue
+	 */
+	public void add(int quantity, double revenue) {
+		this.quantity += quantity;
+		this.revenue += revenue;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return identifier + "," + quantity + "," + revenue;
+	}
+}
@@ -36,6 +36,21 @@ public class TransactionReport {
 		this.memberId = memberId;
 		this.date = LocalDate.parse(date);
 	}
+
+	/**
+	 * Transaction Report Constructor for a date which has been parsed
+	 * 
+	 * @param identifier
+	 * @param item
+	 * @param memberId
+	 * @param date
+	 */
+	public TransactionReport(int identifier, TransactionItem item, String memberId, LocalDate date) {
+		this.identifier = identifier;
+		this.item = item;
+		this.memberId = memberId;
+		this.date = date;
+	}
 	
 	/***********************************************************/
 	// Getters & Setters
@@ -0,0 +1,88 @@
+package sg.edu.nus.iss.universitystore.utility;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in buckets of powers of two microseconds, bucket i
+ * counts the latencies below 2^i microseconds which are not counted by the
+ * bucket before it. Latencies are recorded from any thread without locking.
+ * 
+ * @author Sanjay
+ *
+ */
+public class LatencyHistogram {
+
+	/**
+	 * Last bucket counts the latencies of 2^30 microseconds and more
+	 */
+	private static final int BUCKET_COUNT = 32;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+	/**
+	 * Record a latency
+	 * 
+	 * @param nanos
+	 *            Latency in nanoseconds
+	 */
+	public void record(long nanos) {
+		long micros = Math.max(0, nanos / 1000);
+		buckets.incrementAndGet(Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros)));
+	}
+
+	/**
+	 * Get the number of latencies recorded
+	 * 
+	 * @return Count
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			count += buckets.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Get the upper bound of the bucket of a percentile
+	 * 
+	 * @param percentile
+	 *            Between 0 and 100
+	 * @return Latency in microseconds below which the percentile of the
+	 *         latencies lies, 0 if none is recorded
+	 */
+	public long getPercentile(double percentile) {
+		long count = getCount();
+		if (count == 0)
+			return 0;
+
+		long rank = (long) Math.ceil(count * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += buckets.get(i);
+			if (seen >= rank && seen > 0)
+				return 1L << i;
+		}
+		return 1L << (BUCKET_COUNT - 1);
+	}
+
+	/**
+	 * Remove all latencies recorded
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			buckets.set(i, 0);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("n=%d p50<%dus p90<%dus p99<%dus", getCount(), getPercentile(50), getPercentile(90),
+				getPercentile(99));
+	}
+}
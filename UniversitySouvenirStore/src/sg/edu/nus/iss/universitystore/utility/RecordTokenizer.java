@@ -0,0 +1,335 @@
+package sg.edu.nus.iss.universitystore.utility;
+
+/**
+ * Tokenizer for the rows of the Product and Discount Data Files, which have a
+ * quoted description followed by fields of fixed formats. A row is split in a
+ * single pass and the format of each field is checked while it is scanned, the
+ * fields are returned in the same order as by DateUtils.extractContent with
+ * the description last.
+ * 
+ * @author Sanjay
+ *
+ */
+public final class RecordTokenizer {
+
+	/**
+	 * Formats of the fields after the description
+	 */
+	private enum Field {
+		/**
+		 * \d+
+		 */
+		NUMBER,
+		/**
+		 * \d+(\.\d+)?
+		 */
+		FLOAT,
+		/**
+		 * ALWAYS|\d{4}-\d{2}-\d{2}
+		 */
+		DATE_OR_ALWAYS,
+		/**
+		 * ALWAYS|\d+
+		 */
+		NUMBER_OR_ALWAYS,
+		/**
+		 * \d{1,3}(\.\d{1,2})?
+		 */
+		PERCENTAGE,
+		/**
+		 * A|M
+		 */
+		ELIGIBILITY;
+	}
+
+	/**
+	 * Product fields after the description: Quantity, Price, Bar Code, Reorder
+	 * Threshold and Reorder Quantity
+	 */
+	private static final Field[] PRODUCT_FIELDS = { Field.NUMBER, Field.FLOAT, Field.NUMBER, Field.NUMBER,
+			Field.NUMBER };
+
+	/**
+	 * Discount fields after the description: Start Date, Period, Percentage and
+	 * Eligibility
+	 */
+	private static final Field[] DISCOUNT_FIELDS = { Field.DATE_OR_ALWAYS, Field.NUMBER_OR_ALWAYS, Field.PERCENTAGE,
+			Field.ELIGIBILITY };
+
+	private static final char SEPTR = ',';
+	private static final char QUOTE = '"';
+	private static final char ID_SEPTR = '/';
+	private static final String ALWAYS = "ALWAYS";
+
+	private RecordTokenizer() {
+	}
+
+	/***********************************************************/
+	// Public Methods
+	/***********************************************************/
+
+	/**
+	 * Split a row of the Product Data File
+	 * (Identifier,Name,"Description",Quantity,Price,BarCode,ReorderThreshold,ReorderQuantity)
+	 * 
+	 * @param line
+	 * @return Identifier, Name, Quantity, Price, Bar Code, Reorder Threshold,
+	 *         Reorder Quantity and Description, null if the row is not of the
+	 *         format
+	 */
+	public static String[] tokenizeProduct(String line) {
+		// Identifier as Category/Number
+		int idSeptr = scanWord(line, 0);
+		if (!isAt(line, idSeptr, ID_SEPTR))
+			return null;
+		int idEnd = scanDigits(line, idSeptr + 1, 1, Integer.MAX_VALUE);
+		if (!isAt(line, idEnd, SEPTR))
+			return null;
+
+		int nameEnd = scanName(line, idEnd + 1);
+		if (!isAt(line, nameEnd, SEPTR))
+			return null;
+
+		String[] tokens = tokenize(line, nameEnd + 1, PRODUCT_FIELDS, 2);
+		if (tokens != null) {
+			tokens[0] = line.substring(0, idEnd);
+			tokens[1] = line.substring(idEnd + 1, nameEnd);
+		}
+		return tokens;
+	}
+
+	/**
+	 * Split a row of the Discount Data File
+	 * (Code,"Description",StartDate,Period,Percentage,Eligibility)
+	 * 
+	 * @param line
+	 * @return Code, Start Date, Period, Percentage, Eligibility and
+	 *         Description, null if the row is not of the format
+	 */
+	public static String[] tokenizeDiscount(String line) {
+		int codeEnd = scanCode(line, 0);
+		if (!isAt(line, codeEnd, SEPTR))
+			return null;
+
+		String[] tokens = tokenize(line, codeEnd + 1, DISCOUNT_FIELDS, 1);
+		if (tokens != null) {
+			tokens[0] = line.substring(0, codeEnd);
+		}
+		return tokens;
+	}
+
+	/***********************************************************/
+	// Private Methods
+	/***********************************************************/
+
+	/**
+	 * Split the quoted description and the fields after it. The description
+	 * ends at the first quote and separator after which the fields are of the
+	 * format, it does not start with a quote.
+	 * 
+	 * @param line
+	 * @param descStart
+	 *            Index of the opening quote
+	 * @param fields
+	 * @param leading
+	 *            Number of fields before the description
+	 * @return Tokens with the leading fields left empty, null if the rest of
+	 *         the row is not of the format
+	 */
+	private static String[] tokenize(String line, int descStart, Field[] fields, int leading) {
+		if (!isAt(line, descStart, QUOTE) || isAt(line, descStart + 1, QUOTE))
+			return null;
+
+		int[] fieldEnds = new int[fields.length];
+		for (int descEnd = descStart + 1; descEnd < line.length(); descEnd++) {
+			char character = line.charAt(descEnd);
+			if (character == '\n' || character == '\r')
+				return null;
+
+			if (character != QUOTE || !isAt(line, descEnd + 1, SEPTR)
+					|| !scanFields(line, descEnd + 2, fields, fieldEnds))
+				continue;
+
+			String[] tokens = new String[leading + fields.length + 1];
+			int fieldStart = descEnd + 2;
+			for (int i = 0; i < fields.length; i++) {
+				tokens[leading + i] = line.substring(fieldStart, fieldEnds[i]);
+				fieldStart = fieldEnds[i] + 1;
+			}
+			tokens[tokens.length - 1] = line.substring(descStart + 1, descEnd);
+			return tokens;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Scan separated fields up to the end of the line
+	 * 
+	 * @param line
+	 * @param from
+	 * @param fields
+	 * @param fieldEnds
+	 *            Filled with the end index of each field
+	 * @return Boolean, true if the fields are of the format
+	 */
+	private static boolean scanFields(String line, int from, Field[] fields, int[] fieldEnds) {
+		int position = from;
+		for (int i = 0; i < fields.length; i++) {
+			if (i > 0) {
+				if (!isAt(line, position, SEPTR))
+					return false;
+				position++;
+			}
+
+			position = scanField(line, position, fields[i]);
+			if (position < 0)
+				return false;
+			fieldEnds[i] = position;
+		}
+		return position == line.length();
+	}
+
+	/**
+	 * Scan a field of the format
+	 * 
+	 * @param line
+	 * @param from
+	 * @param field
+	 * @return End index of the field, -1 if it is not of the format
+	 */
+	private static int scanField(String line, int from, Field field) {
+		switch (field) {
+		case NUMBER:
+			return scanDigits(line, from, 1, Integer.MAX_VALUE);
+		case FLOAT:
+			return scanFraction(line, scanDigits(line, from, 1, Integer.MAX_VALUE), Integer.MAX_VALUE);
+		case DATE_OR_ALWAYS:
+			if (line.startsWith(ALWAYS, from))
+				return from + ALWAYS.length();
+			int year = scanDigits(line, from, 4, 4);
+			if (!isAt(line, year, '-'))
+				return -1;
+			int month = scanDigits(line, year + 1, 2, 2);
+			if (!isAt(line, month, '-'))
+				return -1;
+			return scanDigits(line, month + 1, 2, 2);
+		case NUMBER_OR_ALWAYS:
+			if (line.startsWith(ALWAYS, from))
+				return from + ALWAYS.length();
+			return scanDigits(line, from, 1, Integer.MAX_VALUE);
+		case PERCENTAGE:
+			return scanFraction(line, scanDigits(line, from, 1, 3), 2);
+		case ELIGIBILITY:
+			return isAt(line, from, 'A') || isAt(line, from, 'M') ? from + 1 : -1;
+		default:
+			return -1;
+		}
+	}
+
+	/**
+	 * Scan a run of digits, the whole run must be within the count range
+	 * 
+	 * @param line
+	 * @param from
+	 * @param min
+	 * @param max
+	 * @return End index of the digits, -1 if their count is out of range
+	 */
+	private static int scanDigits(String line, int from, int min, int max) {
+		if (from < 0)
+			return -1;
+
+		int position = from;
+		while (position < line.length() && isDigit(line.charAt(position))) {
+			position++;
+		}
+
+		int count = position - from;
+		return count >= min && count <= max ? position : -1;
+	}
+
+	/**
+	 * Scan an optional fraction of up to the maximum digits
+	 * 
+	 * @param line
+	 * @param from
+	 *            End index of the whole part, -1 if it was not of the format
+	 * @param maxDigits
+	 * @return End index of the fraction, -1 if it is not of the format
+	 */
+	private static int scanFraction(String line, int from, int maxDigits) {
+		if (!isAt(line, from, '.'))
+			return from;
+
+		return scanDigits(line, from + 1, 1, maxDigits);
+	}
+
+	/**
+	 * Scan word characters [a-zA-Z_0-9]+
+	 * 
+	 * @param line
+	 * @param from
+	 * @return End index, -1 if there are none
+	 */
+	private static int scanWord(String line, int from) {
+		int position = from;
+		while (position < line.length()) {
+			char character = line.charAt(position);
+			if (!isLetter(character) && !isDigit(character) && character != '_')
+				break;
+			position++;
+		}
+		return position > from ? position : -1;
+	}
+
+	/**
+	 * Scan a Name [a-zA-Z0-9 ]+ which is not only spaces
+	 * 
+	 * @param line
+	 * @param from
+	 * @return End index, -1 if it is not of the format
+	 */
+	private static int scanName(String line, int from) {
+		int position = from;
+		boolean blank = true;
+		while (position < line.length()) {
+			char character = line.charAt(position);
+			if (character != ' ' && !isLetter(character) && !isDigit(character))
+				break;
+			blank &= character == ' ';
+			position++;
+		}
+		return blank ? -1 : position;
+	}
+
+	/**
+	 * Scan a Code [A-Z_]+
+	 * 
+	 * @param line
+	 * @param from
+	 * @return End index, -1 if there is none
+	 */
+	private static int scanCode(String line, int from) {
+		int position = from;
+		while (position < line.length()) {
+			char character = line.charAt(position);
+			if ((character < 'A' || character > 'Z') && character != '_')
+				break;
+			position++;
+		}
+		return position > from ? position : -1;
+	}
+
+	private static boolean isAt(String line, int position, char character) {
+		return position >= 0 && position < line.length() && line.charAt(position) == character;
+	}
+
+	private static boolean isDigit(char character) {
+		return character >= '0' && character <= '9';
+	}
+
+	private static boolean isLetter(char character) {
+		return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z');
+	}
+}
@@ -11,6 +11,7 @@ import sg.edu.nus.iss.universitystore.model.Category;
 import sg.edu.nus.iss.universitystore.model.Discount;
 import sg.edu.nus.iss.universitystore.model.Member;
 import sg.edu.nus.iss.universitystore.model.Product;
+import sg.edu.nus.iss.universitystore.model.SalesSummary;
 import sg.edu.nus.iss.universitystore.model.TransactionItem;
 import sg.edu.nus.iss.universitystore.model.TransactionReport;
 
@@ -158,6 +159,38 @@ public class TableDataUtils {
 		return list;
 	}
 
+	/**
+	 * Method to get the table content for Sales Summary table.
+	 * 
+	 * @param salesSummaryList
+	 *            The array containing the sales of categories and products
+	 *            that need to be displayed in the table.
+	 * @return The 2D string array which will be input to the table.
+	 */
+	public static String[][] getFormattedSalesSummaryListForTable(ArrayList<SalesSummary> salesSummaryList) {
+		String[][] list = new String[salesSummaryList
+				.size()][Constants.TableData.NUMBER_OF_SALES_SUMMARY_TABLE_COLUMNS];
+		for (int row = 0; row < salesSummaryList.size(); row++) {
+			SalesSummary salesSummary = salesSummaryList.get(row);
+			list[row][Constants.TableData.FIRST_COLUMN] = salesSummary.getIdentifier();
+			list[row][Constants.TableData.SECOND_COLUMN] = String.valueOf(salesSummary.getQuantity());
+			list[row][Constants.TableData.THIRD_COLUMN] = String.format("%.2f", salesSummary.getRevenue());
+		}
+		return list;
+	}
+
+	/**
+	 * Method to get the table headers for sales summary. It is important that
+	 * this is in sync with the content method.
+	 * 
+	 * @return The string array with the table headers.
+	 */
+	public static String[] getHeadersForSalesSummaryTable() {
+		String[] list = new String[] { Constants.TableData.STR_SALES_SUMMARY_IDENTIFIER,
+				Constants.TableData.STR_SALES_SUMMARY_QUANTITY, Constants.TableData.STR_SALES_SUMMARY_REVENUE };
+		return list;
+	}
+
 	/**
 	 * Method to get the table content for Discount table.
 	 * 
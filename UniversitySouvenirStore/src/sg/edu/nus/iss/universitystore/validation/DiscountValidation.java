@@ -1,5 +1,6 @@
 package sg.edu.nus.iss.universitystore.validation;
 
+import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 
 import sg.edu.nus.iss.universitystore.constants.Constants;
@@ -64,6 +65,29 @@ public class DiscountValidation extends Validation {
 		return isValidValue(startDate, period, percentage);
 	}
 
+	/**
+	 * Validates the values of a Discount whose fields are known to be of the
+	 * correct format, i.e. the Start Date is a date and the period and
+	 * percentage are within range
+	 * 
+	 * @param startDate
+	 * @param period
+	 * @param percentage
+	 * @return Boolean
+	 * @throws DiscountException
+	 */
+	public static boolean isValidValues(String startDate, String period, String percentage)
+			throws DiscountException {
+		try {
+			if (!startDate.equals(Constants.Data.Discount.ALWAYS))
+				LocalDate.parse(startDate, Constants.Common.YYYY_MM_DD_FORMAT);
+		} catch (DateTimeParseException dateTimeExp) {
+			throw new DiscountException(DiscountError.INVALID_START_DATE);
+		}
+
+		return isValidValue(startDate, period, percentage);
+	}
+
 	/**
 	 * Validates if the period is <=365 and if percentage is < 100
 	 * 
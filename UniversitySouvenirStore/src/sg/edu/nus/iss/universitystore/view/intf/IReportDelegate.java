@@ -17,4 +17,8 @@ public interface IReportDelegate {
 	 * Method will be called when the transaction query is need
 	 */
 	public void onTransactionQuery(String startDate,String endDate);
+	/**
+	 * Method will be called when the sales summary query is needed
+	 */
+	public void onSalesSummaryQuery(String startDate, String endDate);
 }
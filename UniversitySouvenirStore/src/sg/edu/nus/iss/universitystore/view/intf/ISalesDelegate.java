@@ -27,5 +27,10 @@ public interface ISalesDelegate {
 	 * row not selected
 	 */
 	public void rowNotSelected();
+	/**
+	 * bar code read by the scanner in continuous scan mode
+	 * @param barCode
+	 */
+	public void onBarCodeScanned(String barCode);
 	
 }
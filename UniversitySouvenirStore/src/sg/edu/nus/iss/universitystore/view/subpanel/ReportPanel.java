@@ -46,6 +46,10 @@ public class ReportPanel extends JPanel{
 	 * Panel which displays all the functionalities related to the member.
 	 */
 	private TransactionPanel TransactionPanel;
+	/**
+	 * Panel which displays the sales of the categories and products.
+	 */
+	private SalesSummaryPanel salesSummaryPanel;
 	
 	/**
 	 * Delegate for informing the controller about the various events.
@@ -76,7 +80,9 @@ public class ReportPanel extends JPanel{
 		
 		TransactionPanel = new TransactionPanel(delegate);
 		
-		createTabbedPane(categoryPanel, productPanel, memberPanel,TransactionPanel);
+		salesSummaryPanel = new SalesSummaryPanel(delegate);
+		
+		createTabbedPane(categoryPanel, productPanel, memberPanel,TransactionPanel, salesSummaryPanel);
 		
 		// Add the component listener since this class needs to be updated when there is a change on the other fields.
 		addComponentListener( new ComponentAdapter ()
@@ -127,11 +133,21 @@ public class ReportPanel extends JPanel{
 		TransactionPanel.updateTable(content, headers);
 	}
 	
+	/**
+	 * Method to set the table data for Sales Summary Panel
+	 * @param content The table content to displayed as part of sales summary panel.
+	 * @param headers The table headers to displayed as part of sales summary panel.
+	 */
+	public void setSalesSummaryTableData(String[][] content, String[] headers) {
+		salesSummaryPanel.updateTable(content, headers);
+	}
+	
 	/***********************************************************/
 	// Private Methods
 	/***********************************************************/
 
-	private void createTabbedPane(JPanel categoryPanel, JPanel productPanel, JPanel memberPanel,JPanel transactionPanel) {
+	private void createTabbedPane(JPanel categoryPanel, JPanel productPanel, JPanel memberPanel,JPanel transactionPanel,
+			JPanel salesSummaryPanel) {
 		tabbedPane = new JTabbedPane();
 		// TODO - Add image to the tabbed pane?
 		tabbedPane.addTab(ViewConstants.PaneHeaders.REP_CATEGORY_PANE, null, categoryPanel,
@@ -142,6 +158,8 @@ public class ReportPanel extends JPanel{
 				ViewConstants.PaneHeaders.REP_MEMBER_PANE_DESC);
 		tabbedPane.addTab(ViewConstants.PaneHeaders.REP_TRANSACTION_PANE, null, transactionPanel,
 				ViewConstants.PaneHeaders.REP_TRANSACTION_PANE_DESC);
+		tabbedPane.addTab(ViewConstants.PaneHeaders.REP_SALES_SUMMARY_PANE, null, salesSummaryPanel,
+				ViewConstants.PaneHeaders.REP_SALES_SUMMARY_PANE_DESC);
 		add(tabbedPane, BorderLayout.CENTER);
 	}
 }
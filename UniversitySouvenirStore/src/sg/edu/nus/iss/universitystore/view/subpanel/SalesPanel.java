@@ -4,6 +4,7 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dimension;
+import java.awt.FlowLayout;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Image;
@@ -21,6 +22,7 @@ import java.math.RoundingMode;
 
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
@@ -58,6 +60,9 @@ public class SalesPanel extends BaseTablePanel {
 
 	private JPanel customerInfoPanel;
 
+	private JCheckBox continuousScanOption; // scan without a dialog per item
+	private JTextField scanText; // bar codes typed by a keyboard wedge scanner
+
 	private ISalesDelegate delegate;
 
 	// used for changeMember tip switch
@@ -108,6 +113,7 @@ public class SalesPanel extends BaseTablePanel {
 		String data[][] = {};
 		JPanel jpanel = new JPanel();
 		jpanel.setLayout(new BorderLayout());
+		jpanel.add(getScanPanel(), BorderLayout.NORTH);
 		jpanel.add(getScrollPaneWithTable(data, TableDataUtils.getHeadersForTransactionItemTable()),
 				BorderLayout.CENTER);
 		jpanel.add(getCalculationPanel(), BorderLayout.SOUTH);
@@ -203,6 +209,46 @@ public class SalesPanel extends BaseTablePanel {
 		ChangeText.setText(String.valueOf(result));
 	}
 
+	/**
+	 * continuous scan mode, a keyboard wedge scanner types the bar code
+	 * followed by enter into the scan field, which is cleared for the next
+	 * scan
+	 * 
+	 * @return
+	 */
+	private JPanel getScanPanel() {
+		continuousScanOption = new JCheckBox(ViewConstants.SalesPanel.CONTINUOUS_SCAN_LABEL);
+		scanText = new JTextField(20);
+		scanText.setEnabled(false);
+
+		continuousScanOption.addActionListener(new ActionListener() {
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				scanText.setEnabled(continuousScanOption.isSelected());
+				scanText.setText("");
+				if (continuousScanOption.isSelected())
+					scanText.requestFocusInWindow();
+			}
+		});
+		scanText.addActionListener(new ActionListener() {
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				String barCode = scanText.getText().trim();
+				scanText.setText("");
+				if (!barCode.isEmpty())
+					delegate.onBarCodeScanned(barCode);
+			}
+		});
+
+		JPanel jpanel = new JPanel();
+		jpanel.setLayout(new FlowLayout(FlowLayout.LEFT));
+		jpanel.add(continuousScanOption);
+		jpanel.add(scanText);
+		return jpanel;
+	}
+
 	/**
 	 * show total cash loyalPoint change
 	 * 
@@ -384,6 +430,15 @@ public class SalesPanel extends BaseTablePanel {
 		return total;
 	}
 
+	/**
+	 * show the latency of the scans for tuning
+	 * 
+	 * @param latency
+	 */
+	public void setScanLatency(String latency) {
+		scanText.setToolTipText(ViewConstants.SalesPanel.SCAN_LATENCY_TIP + latency);
+	}
+
 	public void clear() {
 		totalText.setText("0.0");
 		cashText.setText("");
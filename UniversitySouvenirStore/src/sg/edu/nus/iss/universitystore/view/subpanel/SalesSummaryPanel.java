@@ -0,0 +1,30 @@
+package sg.edu.nus.iss.universitystore.view.subpanel;
+
+import sg.edu.nus.iss.universitystore.view.intf.IReportDelegate;
+
+/**
+ * Panel which displays the quantity sold and revenue of the categories and
+ * products between the dates entered.
+ * 
+ * @author Sanjay
+ *
+ */
+public class SalesSummaryPanel extends TransactionPanel {
+
+	/***********************************************************/
+	// Constants
+	/***********************************************************/
+	private static final long serialVersionUID = 1L;
+
+	/***********************************************************/
+	// Constructors
+	/***********************************************************/
+	public SalesSummaryPanel(IReportDelegate delegate) {
+		super(delegate);
+	}
+
+	@Override
+	protected void query(String startDate, String endDate) {
+		delegate.onSalesSummaryQuery(startDate, endDate);
+	}
+}
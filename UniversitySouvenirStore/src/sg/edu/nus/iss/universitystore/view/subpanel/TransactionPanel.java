@@ -26,7 +26,7 @@ public class TransactionPanel extends BaseTablePanel {
 	// query button
 	private JButton queryBtn;
 
-	private IReportDelegate delegate;
+	protected IReportDelegate delegate;
 
 	/***********************************************************/
 	// Constructors
@@ -61,12 +61,22 @@ public class TransactionPanel extends BaseTablePanel {
 
 			@Override
 			public void actionPerformed(ActionEvent e) {
-				delegate.onTransactionQuery(startDate.getText(), endDate.getText());
+				query(startDate.getText(), endDate.getText());
 			}
 		});
 		return jpanel;
 	}
 
+	/**
+	 * Inform the controller about the query for the dates entered
+	 * 
+	 * @param startDate
+	 * @param endDate
+	 */
+	protected void query(String startDate, String endDate) {
+		delegate.onTransactionQuery(startDate, endDate);
+	}
+
 	@Override
 	protected ActionListener addAction() {
 		// TODO Auto-generated method stub
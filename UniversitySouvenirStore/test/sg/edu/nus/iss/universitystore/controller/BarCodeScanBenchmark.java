@@ -0,0 +1,109 @@
+package sg.edu.nus.iss.universitystore.controller;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import sg.edu.nus.iss.universitystore.constants.JUnitConstants;
+import sg.edu.nus.iss.universitystore.data.InventoryManager;
+import sg.edu.nus.iss.universitystore.model.Cart;
+import sg.edu.nus.iss.universitystore.test.InitializeTest;
+import sg.edu.nus.iss.universitystore.utility.LatencyHistogram;
+
+/**
+ * Benchmark for the continuous scan mode. Scans Bar Codes into a cart through
+ * the Bar Code Scan Queue, with a single thread standing in for the Event
+ * Dispatch Thread, first as fast as they can be queued and then at the pace of
+ * a busy counter, and prints the latency histogram of each run.
+ * 
+ * @author Sanjay
+ *
+ */
+public class BarCodeScanBenchmark {
+
+	private static final int PRODUCT_COUNT = 1000;
+
+	/**
+	 * Scans of the burst, every fourth scan repeats the one before it
+	 */
+	private static final int BURST_SCANS = 20000;
+
+	/**
+	 * Scans per second and number of scans of the paced run
+	 */
+	private static final int PACED_RATE = 20;
+	private static final int PACED_SCANS = 100;
+
+	public static void main(String[] args) throws Exception {
+		InitializeTest.getInstance();
+		ExecutorService lookupExecutor = Executors.newSingleThreadExecutor();
+		ExecutorService eventDispatchThread = Executors.newSingleThreadExecutor();
+		try {
+			InventoryManager inventoryManager = InventoryManager.getInstance();
+			inventoryManager.addCategory("CLO", "Category CLO");
+			ArrayList<String> barCodes = new ArrayList<>();
+			for (int i = 0; i < PRODUCT_COUNT; i++) {
+				String barCode = String.valueOf(8880000000000L + i);
+				inventoryManager.addProduct("CLO", "Product " + i, "Description", "1000000", "10.5", barCode, "10",
+						"100");
+				barCodes.add(barCode);
+			}
+
+			run("Burst of " + BURST_SCANS + " scans", BURST_SCANS, 0, barCodes, lookupExecutor,
+					eventDispatchThread);
+			run(PACED_SCANS + " scans at " + PACED_RATE + " per second", PACED_SCANS, 1000 / PACED_RATE, barCodes,
+					lookupExecutor, eventDispatchThread);
+		} finally {
+			lookupExecutor.shutdown();
+			eventDispatchThread.shutdown();
+			InventoryManager.deleteInstance();
+			InitializeTest.destroyInstance();
+
+			// Remove all files from test/data directory
+			for (File testFile : new File(JUnitConstants.Data.TEST_FILE_PATH).listFiles()) {
+				if (!testFile.isDirectory())
+					Files.deleteIfExists(testFile.toPath());
+			}
+		}
+	}
+
+	/**
+	 * Scan Bar Codes into a new cart and wait for every scan to be added
+	 * 
+	 * @param name
+	 * @param scans
+	 * @param pauseMillis
+	 *            Pause between scans
+	 * @param barCodes
+	 * @param lookupExecutor
+	 * @param eventDispatchThread
+	 * @throws Exception
+	 */
+	private static void run(String name, int scans, long pauseMillis, ArrayList<String> barCodes,
+			ExecutorService lookupExecutor, ExecutorService eventDispatchThread) throws Exception {
+		Cart cart = new Cart();
+		Semaphore scansAdded = new Semaphore(0);
+		InventoryManager inventoryManager = InventoryManager.getInstance();
+		BarCodeScanQueue scanQueue = new BarCodeScanQueue(inventoryManager::findProductByBarCode,
+				(barCode, product, quantity) -> {
+					cart.add(product, quantity);
+					scansAdded.release(quantity);
+				}, lookupExecutor, eventDispatchThread);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < scans; i++) {
+			scanQueue.scan(barCodes.get((int) (((i - (i % 4 == 3 ? 1 : 0)) * 7919L) % barCodes.size())));
+			if (pauseMillis > 0)
+				Thread.sleep(pauseMillis);
+		}
+		scansAdded.acquire(scans);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		LatencyHistogram latencyHistogram = scanQueue.getLatencyHistogram();
+		System.out.println(String.format("%-40s %10.0f scans/s, %d items, %s", name, scans / seconds,
+				cart.getTransactionItemList().size(), latencyHistogram));
+	}
+}
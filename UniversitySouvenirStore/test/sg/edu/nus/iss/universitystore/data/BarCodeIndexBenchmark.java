@@ -0,0 +1,94 @@
+package sg.edu.nus.iss.universitystore.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import sg.edu.nus.iss.universitystore.model.Product;
+import sg.edu.nus.iss.universitystore.utility.BenchmarkUtility;
+
+/**
+ * Benchmark for the scan of a Bar Code at the counter. Compares the linear
+ * search over all Products with the Bar Code Index and a Hash Map by Bar Code
+ * String.
+ * 
+ * @author Sanjay
+ *
+ */
+public class BarCodeIndexBenchmark {
+
+	/**
+	 * Number of Products in the store
+	 */
+	private static final int PRODUCT_COUNT = 100000;
+
+	private static final int WARM_UP = 200000;
+	private static final int ITERATIONS = 1000000;
+
+	/**
+	 * Linear search is measured with fewer iterations as each is slow
+	 */
+	private static final int LINEAR_ITERATIONS = 2000;
+
+	private static Product found;
+
+	public static void main(String[] args) throws Exception {
+		ArrayList<Product> productList = new ArrayList<>(PRODUCT_COUNT);
+		BarCodeIndex barCodeIndex = new BarCodeIndex();
+		HashMap<String, Product> barCodeMap = new HashMap<>();
+		char[][] scans = new char[PRODUCT_COUNT][];
+
+		for (int i = 0; i < PRODUCT_COUNT; i++) {
+			Product product = new Product("CLO/" + i, "Product " + i, "Description", "10", "10.0", getBarCode(i), "5",
+					"20");
+			productList.add(product);
+			barCodeIndex.put(product);
+			barCodeMap.put(product.getBarCode(), product);
+			scans[i] = getBarCode((int) ((i * 7919L) % PRODUCT_COUNT)).toCharArray();
+		}
+
+		double nanos = BenchmarkUtility.measure(LINEAR_ITERATIONS / 10, LINEAR_ITERATIONS, iteration -> {
+			String barCode = scan(scans, iteration);
+			for (Product product : productList) {
+				if (product.getBarCode().equals(barCode)) {
+					found = product;
+					break;
+				}
+			}
+		});
+		BenchmarkUtility.report("Linear search, " + PRODUCT_COUNT + " products", nanos);
+
+		nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS,
+				iteration -> found = barCodeMap.get(scan(scans, iteration)));
+		BenchmarkUtility.report("HashMap<String, Product>, " + PRODUCT_COUNT + " products", nanos);
+
+		nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS,
+				iteration -> found = barCodeIndex.get(scan(scans, iteration)));
+		BenchmarkUtility.report("BarCodeIndex, " + PRODUCT_COUNT + " products", nanos);
+
+		nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS,
+				iteration -> found = barCodeIndex.get(String.valueOf(9000000000000L + iteration)));
+		BenchmarkUtility.report("BarCodeIndex miss, " + PRODUCT_COUNT + " products", nanos);
+	}
+
+	/**
+	 * Every scan is read from the scanner as a new String, so no hash code is
+	 * cached for it
+	 * 
+	 * @param scans
+	 * @param iteration
+	 * @return Bar Code
+	 */
+	private static String scan(char[][] scans, int iteration) {
+		return new String(scans[iteration % PRODUCT_COUNT]);
+	}
+
+	/**
+	 * EAN-13 like Bar Code of digits
+	 * 
+	 * @param identifier
+	 * @return Bar Code
+	 */
+	private static String getBarCode(int identifier) {
+		return String.valueOf(8880000000000L + identifier * 13L);
+	}
+}
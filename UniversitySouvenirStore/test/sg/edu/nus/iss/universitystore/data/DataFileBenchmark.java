@@ -0,0 +1,67 @@
+package sg.edu.nus.iss.universitystore.data;
+
+import java.util.ArrayList;
+
+import sg.edu.nus.iss.universitystore.test.InitializeTest;
+import sg.edu.nus.iss.universitystore.utility.BenchmarkUtility;
+
+/**
+ * Benchmark for Data File. Shows that the cost of appending a record does not
+ * grow with the number of lines already present in the file.
+ * 
+ * @author Sanjay
+ *
+ */
+public class DataFileBenchmark {
+
+	/**
+	 * Data File used for the benchmark
+	 */
+	private static final String FILE_NAME = "Benchmark";
+
+	/**
+	 * Number of lines in the file before the appends are measured
+	 */
+	private static final int[] FILE_SIZES = { 1000, 10000, 100000, 1000000 };
+
+	private static final int WARM_UP = 500;
+	private static final int ITERATIONS = 5000;
+
+	public static void main(String[] args) throws Exception {
+		InitializeTest.getInstance();
+		try {
+			for (int fileSize : FILE_SIZES) {
+				DataFile<String> dataFile = new DataFile<>(FILE_NAME);
+				try {
+					dataFile.addAll(getTransactionLines(fileSize));
+
+					double nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS,
+							iteration -> dataFile.add(getTransactionLine(fileSize + iteration)));
+					BenchmarkUtility.report("DataFile.add with " + fileSize + " lines", nanos);
+				} finally {
+					dataFile.delete();
+				}
+			}
+		} finally {
+			InitializeTest.destroyInstance();
+		}
+	}
+
+	/**
+	 * Lines in the format of Transaction Data File
+	 * 
+	 * @param count
+	 * @return List of lines
+	 */
+	private static ArrayList<String> getTransactionLines(int count) {
+		ArrayList<String> lines = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			lines.add(getTransactionLine(i));
+		}
+		return lines;
+	}
+
+	private static String getTransactionLine(int identifier) {
+		return identifier + ",CLO/1,F42563743156,2,2016-04-01";
+	}
+}
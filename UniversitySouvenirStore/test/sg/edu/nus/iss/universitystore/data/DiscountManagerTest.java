@@ -3,8 +3,13 @@ package sg.edu.nus.iss.universitystore.data;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneId;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -80,7 +85,7 @@ public class DiscountManagerTest extends UniversityStoreJUnit {
 
 		discountDefault = new Discount(Constants.Data.Discount.Member.Public.CODE,
 				Constants.Data.Discount.Member.Public.DESCRIPTION,
-				Constants.DateTime.CURRENT_DATE.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")),
+				StoreClock.getInstance().today().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")),
 				Constants.Data.Discount.Member.Public.PERIOD, Constants.Data.Discount.Member.Public.DEFAULT_DISCOUNT,
 				Constants.Data.Discount.Eligibility.ALL);
 
@@ -348,4 +353,91 @@ public class DiscountManagerTest extends UniversityStoreJUnit {
 		}
 	}
 
+	/**
+	 * Test Discounts applicable as the day changes
+	 */
+	@Test
+	public void testDiscountIndexDayChange() {
+		long today = LocalDate.parse(discountStartDate1, Constants.Common.YYYY_MM_DD_FORMAT).toEpochDay();
+		Discount discountAlways = new Discount("ALW_DISC", "Always", Constants.Data.Discount.ALWAYS,
+				Constants.Data.Discount.ALWAYS_VAL, 10, Eligibility.ALL);
+		DiscountIndex discountIndex = new DiscountIndex(Arrays.asList(discount1, discount2, discountAlways));
+
+		// Member Discount is applicable to Members only
+		Assert.assertEquals(discount1, discountIndex.getBestDiscount(discountDefault, true, today));
+		Assert.assertEquals(discount2, discountIndex.getBestDiscount(discountDefault, false, today));
+
+		// Discount of one day ends after its start date
+		Assert.assertEquals(discount2, discountIndex.getBestDiscount(discountDefault, true, today + 1));
+		Assert.assertEquals(discount2, discountIndex.getBestDiscount(discountDefault, true, today + 6));
+		Assert.assertEquals(discountAlways, discountIndex.getBestDiscount(discountDefault, true, today + 7));
+		Assert.assertEquals(discountAlways, discountIndex.getBestDiscount(discountDefault, false, today - 1));
+
+		Assert.assertEquals(discount1, discountIndex.find(discountCode1.toLowerCase()));
+		Assert.assertNull(discountIndex.find(invldDiscountCode));
+	}
+
+	/**
+	 * Test Discounts of a Member as the day of the Store Clock changes
+	 */
+	@Test
+	public void testStoreClockDayChange() {
+		StoreClock storeClock = StoreClock.getInstance();
+		LocalDate startDate = LocalDate.parse(discountStartDate1, Constants.Common.YYYY_MM_DD_FORMAT);
+		ArrayList<LocalDate> dayChanges = new ArrayList<>();
+		StoreClock.DayChangeListener dayChangeListener = dayChanges::add;
+		try {
+			// Copy Test File Discount.dat
+			JUnitUtility.copyFile(Constants.Data.FileName.DISCOUNT_DAT,
+					(JUnitConstants.Data.FILE_FOLDER.DISCOUNT.toString().toLowerCase()
+							+ Constants.Data.FILE_PATH_SEPTR));
+			storeClock.setClock(Clock.fixed(startDate.atStartOfDay(ZoneId.systemDefault()).toInstant(),
+					ZoneId.systemDefault()));
+			storeClock.addDayChangeListener(dayChangeListener);
+			discountManager = DiscountManager.getInstance();
+			memberManager = MemberManager.getInstance();
+
+			// Discount of one day is applicable on its start date
+			Assert.assertTrue(memberManager.addNewMember(memberID, memberName));
+			Assert.assertTrue(discountManager.addDiscount(discount1));
+			Assert.assertTrue(
+					discountManager.getDiscount(memberID).getPercentage() == Float.parseFloat(discountPercentage1));
+			Assert.assertTrue(dayChanges.isEmpty());
+
+			// Next day is seen without a restart
+			storeClock.setClock(Clock.offset(storeClock.getClock(), Duration.ofDays(1)));
+			Assert.assertEquals(Arrays.asList(startDate.plusDays(1)), dayChanges);
+			Assert.assertTrue(discountManager.getDiscount(memberID).getPercentage() == 20);
+			Assert.assertEquals(startDate.plusDays(1).format(Constants.Common.YYYY_MM_DD_FORMAT),
+					discountManager.getDiscount(Constants.Data.Discount.Member.Public.CODE).getStartDate());
+		} catch (IOException e) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		} catch (MemberException | DiscountException exp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		} finally {
+			storeClock.removeDayChangeListener(dayChangeListener);
+			storeClock.setClock(Clock.systemDefaultZone());
+		}
+	}
+
+	/**
+	 * Test lookup of a Discount without an exception for a miss
+	 */
+	@Test
+	public void testLookupDiscount() {
+		try {
+			// Copy Test File Discount.dat
+			JUnitUtility.copyFile(Constants.Data.FileName.DISCOUNT_DAT,
+					(JUnitConstants.Data.FILE_FOLDER.DISCOUNT.toString().toLowerCase()
+							+ Constants.Data.FILE_PATH_SEPTR));
+			discountManager = DiscountManager.getInstance();
+
+			Assert.assertNull(discountManager.lookupDiscount(discountCode1));
+			Assert.assertFalse(discountManager.hasDiscount(discountCode1));
+			Assert.assertEquals(Constants.Data.Discount.Member.Existing.CODE,
+					discountManager.lookupDiscount(Constants.Data.Discount.Member.Existing.CODE).getCode());
+		} catch (IOException | DiscountException exp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
 }
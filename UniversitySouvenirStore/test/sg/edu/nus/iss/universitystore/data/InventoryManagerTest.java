@@ -4,6 +4,15 @@ import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -681,6 +690,278 @@ public class InventoryManagerTest extends UniversityStoreJUnit {
 			Assert.assertEquals(InventoryError.PRODUCT_BAR_CODE_EXISTS.toString(), inventoryExp.getMessage());
 		}
 	}
-	
-	
+
+	/**
+	 * Products found are copies of the Product Catalog and every write to the
+	 * Product Data is reflected in it
+	 */
+	@Test
+	public void testProductCatalogWriteThrough() {
+		try {
+			// Copy Test File Category.dat
+			JUnitUtility.copyFile(Constants.Data.FileName.CATEGORY_DAT,
+					JUnitConstants.Data.FILE_FOLDER.INVENTORY.toString().toLowerCase()
+							+ Constants.Data.FILE_PATH_SEPTR);
+
+			InventoryManager inventoryManager = InventoryManager.getInstance();
+
+			// Add New Category and Product
+			Assert.assertTrue(inventoryManager.addCategory(categoryCode1, categoryName1));
+			Product newProduct = inventoryManager.addProduct(category1.getCode(), productName1, productDescription1,
+					String.valueOf(productQuantity1), String.valueOf(productPrice1), String.valueOf(productBarCode1),
+					String.valueOf(productReorderThreshold1), String.valueOf(productReorderQuantity1));
+			Assert.assertTrue(newProduct != null);
+
+			// Changing a Product found does not change the Catalog
+			Product product = inventoryManager.findProduct(newProduct.getIdentifier());
+			product.setQuantity(productQuantity1 - 1);
+			Assert.assertEquals(productQuantity1.intValue(),
+					inventoryManager.findProduct(newProduct.getIdentifier()).getQuantity());
+
+			// Update is reflected in the Catalog and in the Data File
+			Assert.assertTrue(inventoryManager.updateProductForTransaction(product));
+			Assert.assertEquals(product, inventoryManager.findProduct(newProduct.getIdentifier()));
+			InventoryManager.deleteInstance();
+			inventoryManager = InventoryManager.getInstance();
+			Assert.assertEquals(product, inventoryManager.findProduct(newProduct.getIdentifier()));
+			Assert.assertEquals(inventoryManager.getAllProducts().size(), 1);
+
+			// Delete is reflected in the Catalog
+			Assert.assertTrue(inventoryManager.deleteProduct(product));
+			Assert.assertNull(inventoryManager.findProduct(newProduct.getIdentifier()));
+			Assert.assertEquals(inventoryManager.getAllProducts().size(), 0);
+
+		} catch (IOException exception) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		} catch (InventoryException inventoryExp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Updating a Product waits for the checkout holding the lock of the Product
+	 */
+	@Test
+	public void testUpdateProductWaitsForCheckout() {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			// Copy Test File Category.dat
+			JUnitUtility.copyFile(Constants.Data.FileName.CATEGORY_DAT,
+					JUnitConstants.Data.FILE_FOLDER.INVENTORY.toString().toLowerCase()
+							+ Constants.Data.FILE_PATH_SEPTR);
+
+			InventoryManager inventoryManager = InventoryManager.getInstance();
+			Assert.assertTrue(inventoryManager.addCategory(categoryCode1, categoryName1));
+			Product product = inventoryManager.addProduct(category1.getCode(), productName1, productDescription1,
+					String.valueOf(productQuantity1), String.valueOf(productPrice1), String.valueOf(productBarCode1),
+					String.valueOf(productReorderThreshold1), String.valueOf(productReorderQuantity1));
+			product.setQuantity(productQuantity1 + 10);
+
+			// A checkout holds the lock of the Product
+			ArrayList<ReentrantLock> locks = inventoryManager.getProductLocks()
+					.lock(Collections.singleton(product.getIdentifier()));
+			Future<Boolean> update;
+			try {
+				update = executor.submit(() -> inventoryManager.updateProductForTransaction(product));
+				try {
+					update.get(200, TimeUnit.MILLISECONDS);
+					fail(JUnitMessages.Error.JUNIT_FAIL);
+				} catch (TimeoutException timeoutExp) {
+					// Update waits for the checkout
+				}
+				Assert.assertEquals(productQuantity1.intValue(),
+						inventoryManager.findProduct(product.getIdentifier()).getQuantity());
+			} finally {
+				StripedLock.unlock(locks);
+			}
+
+			Assert.assertTrue(update.get());
+			Assert.assertEquals(productQuantity1 + 10,
+					inventoryManager.findProduct(product.getIdentifier()).getQuantity());
+		} catch (IOException | InventoryException | InterruptedException | ExecutionException exception) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Deleting the Product found by a Bar Code finds the next Product with it,
+	 * as Product Data written before Bar Codes were checked may share them
+	 */
+	@Test
+	public void testBarCodeSharedByDeletedProduct() {
+		try {
+			// Copy Test File Category.dat
+			JUnitUtility.copyFile(Constants.Data.FileName.CATEGORY_DAT,
+					JUnitConstants.Data.FILE_FOLDER.INVENTORY.toString().toLowerCase()
+							+ Constants.Data.FILE_PATH_SEPTR);
+
+			InventoryManager inventoryManager = InventoryManager.getInstance();
+			Assert.assertTrue(inventoryManager.addCategory(categoryCode1, categoryName1));
+			Product firstProduct = inventoryManager.addProduct(category1.getCode(), productName1, productDescription1,
+					String.valueOf(productQuantity1), String.valueOf(productPrice1), String.valueOf(productBarCode1),
+					String.valueOf(productReorderThreshold1), String.valueOf(productReorderQuantity1));
+
+			// Second Product with the same Bar Code
+			Product secondProduct = new Product(categoryCode1 + Constants.Data.ID_SEPTR + 99, productName2,
+					productDescription2, String.valueOf(productQuantity2), String.valueOf(productPrice2),
+					String.valueOf(productBarCode1), String.valueOf(productReorderThreshold2),
+					String.valueOf(productReorderQuantity2));
+			Assert.assertTrue(new DataFile<Product>(Constants.Data.FileName.PRODUCT_DAT).add(secondProduct));
+			InventoryManager.deleteInstance();
+			inventoryManager = InventoryManager.getInstance();
+			Assert.assertEquals(firstProduct.getIdentifier(),
+					inventoryManager.findProductByBarCode(String.valueOf(productBarCode1)).getIdentifier());
+
+			Assert.assertTrue(inventoryManager.deleteProduct(firstProduct));
+			Assert.assertEquals(secondProduct.getIdentifier(),
+					inventoryManager.findProductByBarCode(String.valueOf(productBarCode1)).getIdentifier());
+
+			Assert.assertTrue(inventoryManager.deleteProduct(secondProduct));
+			Assert.assertNull(inventoryManager.findProductByBarCode(String.valueOf(productBarCode1)));
+		} catch (IOException exception) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		} catch (InventoryException inventoryExp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Category Catalog used by the Product parsing follows additions and
+	 * deletions of Categories
+	 */
+	@Test
+	public void testCategoryCatalogInvalidation() {
+		try {
+			// Copy Test File Category.dat
+			JUnitUtility.copyFile(Constants.Data.FileName.CATEGORY_DAT,
+					JUnitConstants.Data.FILE_FOLDER.INVENTORY.toString().toLowerCase()
+							+ Constants.Data.FILE_PATH_SEPTR);
+
+			InventoryManager inventoryManager = InventoryManager.getInstance();
+			Assert.assertFalse(inventoryManager.hasCategory(categoryCode1));
+
+			// Add New Category and Product
+			Assert.assertTrue(inventoryManager.addCategory(categoryCode1, categoryName1));
+			Assert.assertTrue(inventoryManager.hasCategory(categoryCode1));
+			Product newProduct = inventoryManager.addProduct(category1.getCode(), productName1, productDescription1,
+					String.valueOf(productQuantity1), String.valueOf(productPrice1), String.valueOf(productBarCode1),
+					String.valueOf(productReorderThreshold1), String.valueOf(productReorderQuantity1));
+			Assert.assertTrue(inventoryManager.isValidProduct(newProduct.getIdentifier()));
+
+			// Products of a deleted Category are no longer valid
+			Assert.assertTrue(inventoryManager.deleteCategory(categoryCode1));
+			Assert.assertFalse(inventoryManager.hasCategory(categoryCode1));
+			Assert.assertFalse(inventoryManager.isValidProduct(newProduct.getIdentifier()));
+			Assert.assertEquals(inventoryManager.getAllProducts().size(), 0);
+
+			// And are valid again once the Category is added back
+			Assert.assertTrue(inventoryManager.addCategory(categoryCode1, categoryName1));
+			Assert.assertTrue(inventoryManager.isValidProduct(newProduct.getIdentifier()));
+			Assert.assertEquals(inventoryManager.getAllProducts().size(), 1);
+
+		} catch (IOException exception) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		} catch (InventoryException inventoryExp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Product numbers continue from the last one used in the Category, even
+	 * after the Product with it is deleted and the manager is restarted
+	 */
+	@Test
+	public void testProductSequence() {
+		try {
+			// Copy Test File Category.dat
+			JUnitUtility.copyFile(Constants.Data.FileName.CATEGORY_DAT,
+					JUnitConstants.Data.FILE_FOLDER.INVENTORY.toString().toLowerCase()
+							+ Constants.Data.FILE_PATH_SEPTR);
+
+			InventoryManager inventoryManager = InventoryManager.getInstance();
+
+			// Add New Category and two Products
+			Assert.assertTrue(inventoryManager.addCategory(categoryCode1, categoryName1));
+			Product firstProduct = inventoryManager.addProduct(category1.getCode(), productName1, productDescription1,
+					String.valueOf(productQuantity1), String.valueOf(productPrice1), String.valueOf(productBarCode1),
+					String.valueOf(productReorderThreshold1), String.valueOf(productReorderQuantity1));
+			Product secondProduct = inventoryManager.addProduct(category1.getCode(), productName2, productDescription2,
+					String.valueOf(productQuantity2), String.valueOf(productPrice2), String.valueOf(productBarCode2),
+					String.valueOf(productReorderThreshold2), String.valueOf(productReorderQuantity2));
+			Assert.assertEquals(categoryCode1 + Constants.Data.ID_SEPTR + 1, firstProduct.getIdentifier());
+			Assert.assertEquals(categoryCode1 + Constants.Data.ID_SEPTR + 2, secondProduct.getIdentifier());
+
+			// Number of a deleted Product is not given out again after restart
+			Assert.assertTrue(inventoryManager.deleteProduct(secondProduct));
+			InventoryManager.deleteInstance();
+			inventoryManager = InventoryManager.getInstance();
+			Product thirdProduct = inventoryManager.addProduct(category1.getCode(), productName3, productDescription3,
+					String.valueOf(productQuantity3), String.valueOf(productPrice3), String.valueOf(productBarCode3),
+					String.valueOf(productReorderThreshold3), String.valueOf(productReorderQuantity3));
+			Assert.assertEquals(categoryCode1 + Constants.Data.ID_SEPTR + 3, thirdProduct.getIdentifier());
+
+		} catch (IOException exception) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		} catch (InventoryException inventoryExp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Test stock deltas of several Products are applied together and none is
+	 * applied if a Product does not exist
+	 */
+	@Test
+	public void testApplyStockDeltas() {
+		try {
+			// Copy Test File Category.dat
+			JUnitUtility.copyFile(Constants.Data.FileName.CATEGORY_DAT,
+					JUnitConstants.Data.FILE_FOLDER.INVENTORY.toString().toLowerCase()
+							+ Constants.Data.FILE_PATH_SEPTR);
+
+			InventoryManager inventoryManager = InventoryManager.getInstance();
+
+			// Add New Category and two Products
+			Assert.assertTrue(inventoryManager.addCategory(categoryCode1, categoryName1));
+			Product firstProduct = inventoryManager.addProduct(category1.getCode(), productName1, productDescription1,
+					String.valueOf(productQuantity1), String.valueOf(productPrice1), String.valueOf(productBarCode1),
+					String.valueOf(productReorderThreshold1), String.valueOf(productReorderQuantity1));
+			Product secondProduct = inventoryManager.addProduct(category1.getCode(), productName2, productDescription2,
+					String.valueOf(productQuantity2), String.valueOf(productPrice2), String.valueOf(productBarCode2),
+					String.valueOf(productReorderThreshold2), String.valueOf(productReorderQuantity2));
+
+			HashMap<String, Integer> stockDeltas = new HashMap<>();
+			stockDeltas.put(firstProduct.getIdentifier(), -5);
+			stockDeltas.put(secondProduct.getIdentifier(), -7);
+			Assert.assertTrue(inventoryManager.applyStockDeltas(stockDeltas));
+
+			// A Product which does not exist fails the whole batch
+			stockDeltas.put(categoryCode1 + Constants.Data.ID_SEPTR + 3, -1);
+			try {
+				inventoryManager.applyStockDeltas(stockDeltas);
+				fail(JUnitMessages.Error.JUNIT_FAIL);
+			} catch (InventoryException inventoryExp) {
+				Assert.assertEquals(InventoryError.PRODUCT_NOT_AVAILABLE.toString(), inventoryExp.getMessage());
+			}
+
+			// Deltas are reflected in the Catalog, the Bar Codes and the Data File
+			for (int i = 0; i < 2; i++) {
+				Assert.assertEquals(productQuantity1 - 5,
+						inventoryManager.findProduct(firstProduct.getIdentifier()).getQuantity());
+				Assert.assertEquals(productQuantity2 - 7,
+						inventoryManager.findProductByBarCode(String.valueOf(productBarCode2)).getQuantity());
+				Assert.assertEquals(2, inventoryManager.getAllProducts().size());
+				InventoryManager.deleteInstance();
+				inventoryManager = InventoryManager.getInstance();
+			}
+
+		} catch (IOException exception) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		} catch (InventoryException inventoryExp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
 }
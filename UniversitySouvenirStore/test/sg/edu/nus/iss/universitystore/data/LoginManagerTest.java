@@ -15,23 +15,26 @@ import sg.edu.nus.iss.universitystore.constants.Constants;
 import sg.edu.nus.iss.universitystore.constants.JUnitConstants;
 import sg.edu.nus.iss.universitystore.exception.LoginException;
 import sg.edu.nus.iss.universitystore.exception.LoginException.LoginError;
+import sg.edu.nus.iss.universitystore.intf.UniversityStoreJUnit;
 import sg.edu.nus.iss.universitystore.messages.JUnitMessages;
 import sg.edu.nus.iss.universitystore.model.StoreKeeper;
 import sg.edu.nus.iss.universitystore.utility.JUnitUtility;
 
-public class LoginManagerTest {
+public class LoginManagerTest extends UniversityStoreJUnit {
 
 	StoreKeeper storeKeeper1, storeKeeper2;
 	LoginManager loginManager;
 	
 	@Before
 	public void setUp() throws Exception {
+		super.setUp();
 		storeKeeper1=new StoreKeeper("1","1");
 		storeKeeper2=new StoreKeeper("2","2");
 	}
 
 	@After
 	public void tearDown() throws Exception {
+		super.tearDown();
 		loginManager.deleteInstance();
 		storeKeeper1=null;
 		storeKeeper2=null;
@@ -59,4 +62,22 @@ public class LoginManagerTest {
 		
 	}
 
+	@Test
+	public void testHasCredentials() {
+		try {
+			// Copy Test File StoreKeeper.dat
+			JUnitUtility.copyFile(Constants.Data.FileName.STORE_KEEPER_DAT,
+					(JUnitConstants.Data.FILE_FOLDER.STOREKEEPER.toString().toLowerCase()
+							+ Constants.Data.FILE_PATH_SEPTR));
+			Assert.assertTrue(new DataFile<StoreKeeper>(Constants.Data.FileName.STORE_KEEPER_DAT).add(storeKeeper1));
+
+			loginManager = LoginManager.getInstance();
+
+			Assert.assertTrue(loginManager.hasCredentials(storeKeeper1));
+			Assert.assertFalse(loginManager.hasCredentials(storeKeeper2));
+		} catch (LoginException | IOException e) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
 }
@@ -0,0 +1,112 @@
+package sg.edu.nus.iss.universitystore.data;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import sg.edu.nus.iss.universitystore.constants.Constants;
+import sg.edu.nus.iss.universitystore.constants.JUnitConstants;
+import sg.edu.nus.iss.universitystore.constants.ViewConstants;
+import sg.edu.nus.iss.universitystore.exception.DiscountException;
+import sg.edu.nus.iss.universitystore.exception.LoginException;
+import sg.edu.nus.iss.universitystore.exception.MemberException;
+import sg.edu.nus.iss.universitystore.model.Discount;
+import sg.edu.nus.iss.universitystore.model.Member;
+import sg.edu.nus.iss.universitystore.model.StoreKeeper;
+import sg.edu.nus.iss.universitystore.test.InitializeTest;
+import sg.edu.nus.iss.universitystore.utility.BenchmarkUtility;
+
+/**
+ * Benchmark for the lookups of the Data Managers which miss. Compares each
+ * lookup which throws for the miss with the one which returns a sentinel.
+ * 
+ * @author Sanjay
+ *
+ */
+public class LookupMissBenchmark {
+
+	/**
+	 * Number of Members and Store Keepers of the store
+	 */
+	private static final int MEMBER_COUNT = 10000;
+	private static final int STORE_KEEPER_COUNT = 100;
+
+	private static final int WARM_UP = 100000;
+	private static final int ITERATIONS = 1000000;
+
+	/**
+	 * Credentials are read from the Store Keeper Data, so they are measured
+	 * with fewer iterations
+	 */
+	private static final int LOGIN_ITERATIONS = 2000;
+
+	private static Member member;
+	private static Discount discount;
+	private static boolean isValid;
+
+	public static void main(String[] args) throws Exception {
+		InitializeTest.getInstance();
+		try {
+			MemberManager memberManager = MemberManager.getInstance();
+			for (int i = 0; i < MEMBER_COUNT; i++) {
+				memberManager.addNewMember("M" + i, "Member " + i);
+			}
+			DiscountManager discountManager = DiscountManager.getInstance();
+			DataFile<StoreKeeper> storeKeeperData = new DataFile<>(Constants.Data.FileName.STORE_KEEPER_DAT);
+			for (int i = 0; i < STORE_KEEPER_COUNT; i++) {
+				storeKeeperData.add(new StoreKeeper("Keeper" + i, "Password" + i));
+			}
+			LoginManager loginManager = LoginManager.getInstance();
+
+			double nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS, iteration -> {
+				try {
+					member = memberManager.getMember(ViewConstants.Labels.STR_PUBLIC);
+				} catch (MemberException memberExp) {
+					member = null;
+				}
+			});
+			BenchmarkUtility.report("getMember miss with exception", nanos);
+
+			nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS,
+					iteration -> member = memberManager.findMember(ViewConstants.Labels.STR_PUBLIC));
+			BenchmarkUtility.report("findMember miss", nanos);
+
+			nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS, iteration -> {
+				try {
+					discount = discountManager.findDiscount("NO_SUCH_CODE");
+				} catch (DiscountException discountExp) {
+					discount = null;
+				}
+			});
+			BenchmarkUtility.report("findDiscount miss with exception", nanos);
+
+			nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS,
+					iteration -> discount = discountManager.lookupDiscount("NO_SUCH_CODE"));
+			BenchmarkUtility.report("lookupDiscount miss", nanos);
+
+			StoreKeeper unknown = new StoreKeeper("Unknown", "Password");
+			nanos = BenchmarkUtility.measure(LOGIN_ITERATIONS / 10, LOGIN_ITERATIONS, iteration -> {
+				try {
+					isValid = loginManager.isValidCredentials(unknown);
+				} catch (LoginException loginExp) {
+					isValid = false;
+				}
+			});
+			BenchmarkUtility.report("isValidCredentials miss with exception", nanos);
+
+			nanos = BenchmarkUtility.measure(LOGIN_ITERATIONS / 10, LOGIN_ITERATIONS,
+					iteration -> isValid = loginManager.hasCredentials(unknown));
+			BenchmarkUtility.report("hasCredentials miss", nanos);
+		} finally {
+			MemberManager.deleteInstance();
+			DiscountManager.deleteInstance();
+			LoginManager.deleteInstance();
+			InitializeTest.destroyInstance();
+
+			// Remove all files from test/data directory
+			for (File testFile : new File(JUnitConstants.Data.TEST_FILE_PATH).listFiles()) {
+				if (!testFile.isDirectory())
+					Files.deleteIfExists(testFile.toPath());
+			}
+		}
+	}
+}
@@ -11,6 +11,7 @@ import org.junit.Test;
 
 import sg.edu.nus.iss.universitystore.constants.Constants;
 import sg.edu.nus.iss.universitystore.constants.JUnitConstants;
+import sg.edu.nus.iss.universitystore.constants.ViewConstants;
 import sg.edu.nus.iss.universitystore.exception.MemberException;
 import sg.edu.nus.iss.universitystore.exception.MemberException.MemberError;
 import sg.edu.nus.iss.universitystore.intf.UniversityStoreJUnit;
@@ -322,4 +323,137 @@ public class MemberManagerTest extends UniversityStoreJUnit {
 			Assert.assertEquals(MemberError.MEMBER_NOT_PRESENT_IN_FILE.toString(), memberExp.getMessage());
 		}
 	}
+
+	/**
+	 * Members found are copies of the Member Catalog and every write to the
+	 * Member Data is reflected in it
+	 */
+	@Test
+	public void testMemberCatalogWriteThrough() {
+		try {
+			MemberManager memberManager = MemberManager.getInstance();
+			Assert.assertTrue(memberManager.addNewMember(memberId2, memberName2));
+			Assert.assertTrue(memberManager.isMember(memberId2));
+
+			// Changing a Member found does not change the Catalog
+			Member member = memberManager.getMember(memberId2);
+			member.setLoyaltyPoints(memberLoyaltyPoints2);
+			Assert.assertEquals(Constants.Data.Member.LOYALTY_NEW_MEMBER,
+					memberManager.getMember(memberId2).getLoyaltyPoints());
+
+			// Update is reflected in the Catalog and in the Data File
+			Assert.assertTrue(memberManager.updateMember(memberManager.getMember(memberId2), member));
+			Assert.assertEquals(member2, memberManager.getMember(memberId2));
+			MemberManager.deleteInstance();
+			memberManager = MemberManager.getInstance();
+			Assert.assertEquals(member2, memberManager.getMember(memberId2));
+			Assert.assertEquals(memberLoyaltyPoints2.intValue(), memberManager.getMember(memberId2).getLoyaltyPoints());
+			Assert.assertEquals(1, memberManager.getAllMembers().size());
+
+			// Remove is reflected in the Catalog
+			Assert.assertTrue(memberManager.removeMember(memberId2));
+			Assert.assertFalse(memberManager.isMember(memberId2));
+			Assert.assertEquals(0, memberManager.getAllMembers().size());
+		} catch (MemberException memberExp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Test loyalty points changes are kept in the Loyalty Ledger
+	 */
+	@Test
+	public void testLoyaltyLedger() {
+		try {
+			MemberManager memberManager = MemberManager.getInstance();
+			Assert.assertTrue(memberManager.addNewMember(memberId1, memberName1));
+			Assert.assertTrue(memberManager.addLoyaltyPoints(memberId1, 101, 1));
+			Assert.assertTrue(memberManager.addLoyaltyPoints(memberId1, -60, 2));
+			Assert.assertEquals(40, memberManager.getMember(memberId1).getLoyaltyPoints());
+
+			// Member Data is not written for a change of points
+			Assert.assertEquals(1, new DataFile<String>(Constants.Data.FileName.MEMBER_DAT).getAll().length);
+			Assert.assertEquals(member1.toString(),
+					new DataFile<String>(Constants.Data.FileName.MEMBER_DAT).getAll()[0]);
+
+			// Points are rebuilt from the ledger
+			MemberManager.deleteInstance();
+			memberManager = MemberManager.getInstance();
+			Assert.assertEquals(40, memberManager.getMember(memberId1).getLoyaltyPoints());
+
+			// A change of profile keeps the points
+			Member member = memberManager.getMember(memberId1);
+			member.setName(memberName2);
+			Assert.assertTrue(memberManager.updateMember(memberManager.getMember(memberId1), member));
+			MemberManager.deleteInstance();
+			memberManager = MemberManager.getInstance();
+			Assert.assertEquals(memberName2, memberManager.getMember(memberId1).getName());
+			Assert.assertEquals(40, memberManager.getMember(memberId1).getLoyaltyPoints());
+
+			// Entries left in the ledger after a snapshot are not counted twice
+			LoyaltyLedger loyaltyLedger = new LoyaltyLedger();
+			Assert.assertEquals(41, loyaltyLedger.getTotal(memberId1));
+			String[] entries = new DataFile<String>(Constants.Data.FileName.LOYALTY_LEDGER_DAT).getAll();
+			loyaltyLedger.snapshot();
+			DataFile<String> ledgerData = new DataFile<>(Constants.Data.FileName.LOYALTY_LEDGER_DAT);
+			for (String entry : entries) {
+				ledgerData.add(entry);
+			}
+			loyaltyLedger = new LoyaltyLedger();
+			Assert.assertEquals(41, loyaltyLedger.getTotal(memberId1));
+			Assert.assertTrue(loyaltyLedger.add(memberId1, 5, 3));
+			Assert.assertEquals(46, new LoyaltyLedger().getTotal(memberId1));
+		} catch (MemberException | IOException exp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Test check of a Member which is not in the Catalog
+	 */
+	@Test
+	public void testIsMemberMiss() {
+		try {
+			// Catalog is loaded by the first check
+			MemberManager memberManager = MemberManager.getInstance();
+			Assert.assertFalse(memberManager.isMember(memberId1));
+			Assert.assertFalse(memberManager.isMember(null));
+			Assert.assertFalse(memberManager.isMember(ViewConstants.Labels.STR_PUBLIC));
+
+			// Identifiers follow the changes of the Catalog
+			Assert.assertTrue(memberManager.addNewMember(memberId1, memberName1));
+			Assert.assertTrue(memberManager.isMember(memberId1));
+			Member member = memberManager.getMember(memberId1);
+			member.setIdentifier(memberId2);
+			Assert.assertTrue(memberManager.updateMember(memberManager.getMember(memberId1), member));
+			Assert.assertFalse(memberManager.isMember(memberId1));
+			Assert.assertTrue(memberManager.isMember(memberId2));
+			Assert.assertTrue(memberManager.removeMember(memberId2));
+			Assert.assertFalse(memberManager.isMember(memberId2));
+		} catch (MemberException memberExp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Test lookup of a Member without an exception for a miss
+	 */
+	@Test
+	public void testFindMember() {
+		try {
+			MemberManager memberManager = MemberManager.getInstance();
+			Assert.assertNull(memberManager.findMember(memberId1));
+			Assert.assertNull(memberManager.findMember(null));
+
+			Assert.assertTrue(memberManager.addNewMember(memberId1, memberName1));
+			Member member = memberManager.findMember(memberId1);
+			Assert.assertEquals(memberName1, member.getName());
+
+			// Member found is a copy of the one in the Catalog
+			member.setName(memberName2);
+			Assert.assertEquals(memberName1, memberManager.findMember(memberId1).getName());
+		} catch (MemberException memberExp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
 }
@@ -0,0 +1,106 @@
+package sg.edu.nus.iss.universitystore.data;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import sg.edu.nus.iss.universitystore.constants.JUnitConstants;
+import sg.edu.nus.iss.universitystore.constants.ViewConstants;
+import sg.edu.nus.iss.universitystore.exception.MemberException;
+import sg.edu.nus.iss.universitystore.model.Discount;
+import sg.edu.nus.iss.universitystore.model.Member;
+import sg.edu.nus.iss.universitystore.test.InitializeTest;
+import sg.edu.nus.iss.universitystore.utility.BenchmarkUtility;
+
+/**
+ * Benchmark for the checkout of a customer who is not a Member. Compares the
+ * lookup of the Member which throws for the miss with the check of the
+ * Identifiers, alone and while another thread keeps the Member Manager busy
+ * with changes of loyalty points, and measures the Discount of the customer.
+ * 
+ * @author Sanjay
+ *
+ */
+public class PublicCheckoutBenchmark {
+
+	/**
+	 * Number of Members of the store
+	 */
+	private static final int MEMBER_COUNT = 10000;
+
+	private static final int WARM_UP = 100000;
+	private static final int ITERATIONS = 1000000;
+
+	/**
+	 * Discount is read from the Discount Data, so it is measured with fewer
+	 * iterations
+	 */
+	private static final int DISCOUNT_ITERATIONS = 2000;
+
+	private static Member found;
+	private static boolean isMember;
+	private static Discount discount;
+
+	/**
+	 * Stops the checkouts, the thread is not interrupted as that would close
+	 * the Data Files it is writing
+	 */
+	private static volatile boolean stopped;
+
+	public static void main(String[] args) throws Exception {
+		InitializeTest.getInstance();
+		try {
+			MemberManager memberManager = MemberManager.getInstance();
+			for (int i = 0; i < MEMBER_COUNT; i++) {
+				memberManager.addNewMember("M" + i, "Member " + i);
+			}
+			DiscountManager discountManager = DiscountManager.getInstance();
+
+			double nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS, iteration -> {
+				try {
+					found = memberManager.getMember(ViewConstants.Labels.STR_PUBLIC);
+				} catch (MemberException memberExp) {
+					found = null;
+				}
+			});
+			BenchmarkUtility.report("getMember miss with exception", nanos);
+
+			nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS,
+					iteration -> isMember = memberManager.isMember(ViewConstants.Labels.STR_PUBLIC));
+			BenchmarkUtility.report("isMember miss", nanos);
+
+			// Checkouts of Members hold the lock of the Member Manager
+			Thread checkouts = new Thread(() -> {
+				try {
+					for (int i = 0; !stopped; i++) {
+						memberManager.addLoyaltyPoints("M" + (i % MEMBER_COUNT), 1, i);
+					}
+				} catch (MemberException memberExp) {
+					memberExp.printStackTrace();
+				}
+			});
+			checkouts.start();
+			try {
+				nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS,
+						iteration -> isMember = memberManager.isMember(ViewConstants.Labels.STR_PUBLIC));
+				BenchmarkUtility.report("isMember miss during checkouts", nanos);
+			} finally {
+				stopped = true;
+				checkouts.join();
+			}
+
+			nanos = BenchmarkUtility.measure(DISCOUNT_ITERATIONS / 10, DISCOUNT_ITERATIONS,
+					iteration -> discount = discountManager.getDiscount(ViewConstants.Labels.STR_PUBLIC));
+			BenchmarkUtility.report("getDiscount for the Public", nanos);
+		} finally {
+			MemberManager.deleteInstance();
+			DiscountManager.deleteInstance();
+			InitializeTest.destroyInstance();
+
+			// Remove all files from test/data directory
+			for (File testFile : new File(JUnitConstants.Data.TEST_FILE_PATH).listFiles()) {
+				if (!testFile.isDirectory())
+					Files.deleteIfExists(testFile.toPath());
+			}
+		}
+	}
+}
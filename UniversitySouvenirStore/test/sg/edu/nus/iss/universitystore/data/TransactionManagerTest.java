@@ -5,6 +5,13 @@ import static org.junit.Assert.fail;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -21,11 +28,14 @@ import sg.edu.nus.iss.universitystore.exception.TransactionException;
 import sg.edu.nus.iss.universitystore.exception.TransactionException.TransactionError;
 import sg.edu.nus.iss.universitystore.intf.UniversityStoreJUnit;
 import sg.edu.nus.iss.universitystore.messages.JUnitMessages;
+import sg.edu.nus.iss.universitystore.model.Cart;
 import sg.edu.nus.iss.universitystore.model.Category;
 import sg.edu.nus.iss.universitystore.model.Discount;
 import sg.edu.nus.iss.universitystore.model.Member;
 import sg.edu.nus.iss.universitystore.model.Product;
+import sg.edu.nus.iss.universitystore.model.SalesSummary;
 import sg.edu.nus.iss.universitystore.model.TransactionItem;
+import sg.edu.nus.iss.universitystore.model.TransactionReport;
 import sg.edu.nus.iss.universitystore.utility.JUnitUtility;
 
 /**
@@ -434,6 +444,502 @@ public class TransactionManagerTest extends UniversityStoreJUnit {
 		}
 	}
 
+	/**
+	 * Test method for
+	 * {@link sg.edu.nus.iss.universitystore.data.TransactionManager#addTransaction(Cart, String, int)}
+	 * .
+	 */
+	@Test
+	public void testAddTransactionOfCart() {
+		try {
+			Assert.assertTrue(initializeManagerDetails());
+
+			TransactionManager transactionManager = TransactionManager.getInstance();
+			InventoryManager invantoryManager = InventoryManager.getInstance();
+			DiscountManager discountManager = DiscountManager.getInstance();
+			MemberManager memberManager = MemberManager.getInstance();
+
+			// Repeated scans of a Product are one item of the Cart
+			Cart cart = new Cart();
+			cart.add(invantoryManager.findProduct(productID1), 1);
+			cart.add(invantoryManager.findProduct(productID2), 2);
+			cart.add(invantoryManager.findProduct(productID1), 2);
+			cart.add(invantoryManager.findProduct(productID3), 3);
+			cart.remove(2);
+			Assert.assertEquals(2, cart.getTransactionItemList().size());
+			Assert.assertEquals(3, cart.getTransactionItemList().get(0).getQuantity());
+
+			// Total of the Cart is the total of its items after the Discount
+			cart.setDiscount(discountManager.getDiscount(memberID));
+			Assert.assertEquals(
+					transactionManager.getTotal(cart.getTransactionItemList(), cart.getDiscount().getCode()),
+					cart.getTotal(), 0.001);
+
+			int beforeTransaction = memberManager.getMember(memberID).getLoyaltyPoints();
+			Assert.assertTrue(transactionManager.addTransaction(cart, memberID, 0));
+			Assert.assertEquals(2, transactionManager.getTransactionReport().size());
+			Assert.assertEquals(productQuantity1 - 3, invantoryManager.findProduct(productID1).getQuantity());
+			Assert.assertEquals(productQuantity2 - 2, invantoryManager.findProduct(productID2).getQuantity());
+			Assert.assertEquals(beforeTransaction
+					+ (int) cart.getTotal() / Constants.Data.Transaction.CURRENCY_TO_LOYALTY_POINTS_CONVERSION_RATE,
+					memberManager.getMember(memberID).getLoyaltyPoints());
+		} catch (TransactionException | InventoryException | DiscountException | MemberException exp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Test Transaction Identifiers continue after the Transaction Manager is
+	 * restarted for
+	 * {@link sg.edu.nus.iss.universitystore.data.TransactionManager#addTransaction(java.util.ArrayList, java.lang.String, java.lang.String)}
+	 * .
+	 */
+	@Test
+	public void testAddTransactionIdentifier() {
+		try {
+			Assert.assertTrue(initializeManagerDetails());
+
+			TransactionManager transactionManager = TransactionManager.getInstance();
+			InventoryManager invantoryManager = InventoryManager.getInstance();
+
+			// Add two Transactions
+			ArrayList<TransactionItem> arrTransactionItmLst = new ArrayList<>();
+			arrTransactionItmLst.add(new TransactionItem(invantoryManager.findProduct(productID1), 1));
+			Assert.assertTrue(transactionManager.addTransaction(arrTransactionItmLst, null, memberID, 0));
+
+			arrTransactionItmLst = new ArrayList<>();
+			arrTransactionItmLst.add(new TransactionItem(invantoryManager.findProduct(productID2), 1));
+			Assert.assertTrue(transactionManager.addTransaction(arrTransactionItmLst, null, memberID, 0));
+
+			// Restart Transaction Manager and add another Transaction
+			TransactionManager.deleteInstance();
+			transactionManager = TransactionManager.getInstance();
+			arrTransactionItmLst = new ArrayList<>();
+			arrTransactionItmLst.add(new TransactionItem(invantoryManager.findProduct(productID3), 1));
+			Assert.assertTrue(transactionManager.addTransaction(arrTransactionItmLst, null, memberID, 0));
+
+			TreeSet<Integer> identifiers = new TreeSet<>();
+			for (TransactionReport transactionReport : transactionManager.getTransactionReport()) {
+				identifiers.add(transactionReport.getIdentifier());
+			}
+			Assert.assertEquals("[1, 2, 3]", identifiers.toString());
+		} catch (TransactionException | InventoryException exp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Test Transactions of a single Data File are migrated to monthly segments
+	 * and a range query reads them for
+	 * {@link sg.edu.nus.iss.universitystore.data.TransactionManager#getTransactionReport(java.time.LocalDate, java.time.LocalDate)}
+	 * .
+	 */
+	@Test
+	public void testTransactionSegments() {
+		try {
+			Assert.assertTrue(initializeManagerDetails());
+
+			// Write Transactions of two months to the single Data File
+			TransactionManager.deleteInstance();
+			DataFile<String> transactionData = new DataFile<>(Constants.Data.FileName.TRANSACTION_DAT);
+			transactionData.add("1," + productID1 + "," + memberID + ",1,2016-01-15");
+			transactionData.add("2," + productID2 + "," + memberID + ",2,2016-02-03");
+			transactionData.add("2," + productID3 + "," + memberID + ",1,2016-02-03");
+			transactionData.add("3," + productID1 + ",Public,1,2016-02-29");
+
+			// Transactions are migrated when the Transaction Manager starts
+			TransactionManager transactionManager = TransactionManager.getInstance();
+			Assert.assertTrue(JUnitUtility.checkFileCount(Constants.Data.FileName.TRANSACTION_DAT, 1));
+			Assert.assertTrue(JUnitUtility.checkFileCount(Constants.Data.FileName.SALES_SEGMENT_PREFIX, 2));
+			Assert.assertEquals(0, transactionData.getAll().length);
+
+			Assert.assertEquals(4, transactionManager.getTransactionReport().size());
+			Assert.assertEquals(3, transactionManager
+					.getTransactionReport(LocalDate.of(2016, 2, 1), LocalDate.of(2016, 2, 29)).size());
+			Assert.assertEquals(2, transactionManager
+					.getTransactionReport(LocalDate.of(2016, 1, 20), LocalDate.of(2016, 2, 10)).size());
+			Assert.assertEquals(0, transactionManager
+					.getTransactionReport(LocalDate.of(2016, 3, 1), LocalDate.of(2016, 12, 31)).size());
+
+			// New Transaction continues the Identifiers in the segment of today
+			ArrayList<TransactionItem> arrTransactionItmLst = new ArrayList<>();
+			arrTransactionItmLst.add(new TransactionItem(InventoryManager.getInstance().findProduct(productID1), 1));
+			Assert.assertTrue(transactionManager.addTransaction(arrTransactionItmLst, null, memberID, 0));
+			Assert.assertTrue(JUnitUtility.checkFileCount(Constants.Data.FileName.SALES_SEGMENT_PREFIX, 3));
+			Assert.assertEquals(4, transactionManager.getTransactionReport(LocalDate.now(), LocalDate.now()).get(0)
+					.getIdentifier());
+
+			// Migration done again, as the Data File could not be emptied,
+			// keeps the Transactions added to the segments since
+			TransactionManager.deleteInstance();
+			Assert.assertTrue(new TransactionLog().add(LocalDate.of(2016, 2, 29),
+					"5," + productID2 + ",Public,1,2016-02-29"));
+			transactionData.add("1," + productID1 + "," + memberID + ",1,2016-01-15");
+			transactionData.add("2," + productID2 + "," + memberID + ",2,2016-02-03");
+			transactionData.add("2," + productID3 + "," + memberID + ",1,2016-02-03");
+			transactionData.add("3," + productID1 + ",Public,1,2016-02-29");
+			transactionManager = TransactionManager.getInstance();
+			Assert.assertEquals(0, transactionData.getAll().length);
+			Assert.assertEquals(6, transactionManager.getTransactionReport().size());
+			Assert.assertEquals(4, transactionManager
+					.getTransactionReport(LocalDate.of(2016, 2, 1), LocalDate.of(2016, 2, 29)).size());
+		} catch (IOException | TransactionException | InventoryException exp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Test range queries read the dates of the range through the date index,
+	 * which is rebuilt when its Data File is lost, for
+	 * {@link sg.edu.nus.iss.universitystore.data.TransactionManager#getTransactionReport(java.time.LocalDate, java.time.LocalDate)}
+	 * .
+	 */
+	@Test
+	public void testTransactionDateIndex() {
+		try {
+			Assert.assertTrue(initializeManagerDetails());
+
+			// Write Transactions of three dates to the single Data File
+			TransactionManager.deleteInstance();
+			DataFile<String> transactionData = new DataFile<>(Constants.Data.FileName.TRANSACTION_DAT);
+			transactionData.add("1," + productID1 + "," + memberID + ",1,2016-03-01");
+			transactionData.add("2," + productID2 + "," + memberID + ",2,2016-03-05");
+			transactionData.add("2," + productID3 + "," + memberID + ",1,2016-03-05");
+			transactionData.add("3," + productID1 + ",Public,1,2016-03-09");
+
+			for (int i = 0; i < 2; i++) {
+				TransactionManager transactionManager = TransactionManager.getInstance();
+				Assert.assertTrue(JUnitUtility.checkFileCount(Constants.Data.FileName.SALES_INDEX_DAT, 1));
+				Assert.assertEquals(1, transactionManager
+						.getTransactionReport(LocalDate.of(2016, 3, 1), LocalDate.of(2016, 3, 1)).size());
+				Assert.assertEquals(2, transactionManager
+						.getTransactionReport(LocalDate.of(2016, 3, 2), LocalDate.of(2016, 3, 8)).size());
+				Assert.assertEquals(3, transactionManager
+						.getTransactionReport(LocalDate.of(2016, 3, 5), LocalDate.of(2016, 3, 31)).size());
+				Assert.assertEquals(0, transactionManager
+						.getTransactionReport(LocalDate.of(2016, 3, 6), LocalDate.of(2016, 3, 8)).size());
+
+				// Restart without the index
+				TransactionManager.deleteInstance();
+				Assert.assertTrue(new DataFile<String>(Constants.Data.FileName.SALES_INDEX_DAT).delete());
+			}
+		} catch (IOException | TransactionException exp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Test the daily sales rollup is updated with each Transaction, loaded on
+	 * restart and rebuilt from the log when it is lost, for
+	 * {@link sg.edu.nus.iss.universitystore.data.TransactionManager#getSalesSummary(java.time.LocalDate, java.time.LocalDate)}
+	 * .
+	 */
+	@Test
+	public void testGetSalesSummary() {
+		try {
+			Assert.assertTrue(initializeManagerDetails());
+
+			TransactionManager transactionManager = TransactionManager.getInstance();
+			InventoryManager invantoryManager = InventoryManager.getInstance();
+
+			// Add two Transactions
+			ArrayList<TransactionItem> arrTransactionItmLst = new ArrayList<>();
+			arrTransactionItmLst.add(new TransactionItem(invantoryManager.findProduct(productID1), 1));
+			arrTransactionItmLst.add(new TransactionItem(invantoryManager.findProduct(productID3), 3));
+			Assert.assertTrue(transactionManager.addTransaction(arrTransactionItmLst, null, memberID, 0));
+
+			arrTransactionItmLst = new ArrayList<>();
+			arrTransactionItmLst.add(new TransactionItem(invantoryManager.findProduct(productID1), 2));
+			arrTransactionItmLst.add(new TransactionItem(invantoryManager.findProduct(productID2), 2));
+			Assert.assertTrue(transactionManager.addTransaction(arrTransactionItmLst, null, memberID, 0));
+
+			for (int i = 0; i < 3; i++) {
+				ArrayList<SalesSummary> salesSummary = transactionManager.getSalesSummary(LocalDate.now(),
+						LocalDate.now());
+				Assert.assertEquals(5, salesSummary.size());
+				Assert.assertEquals(categoryCode1 + ",5," + (productPrice1 * 3 + productPrice2 * 2),
+						salesSummary.get(0).toString());
+				Assert.assertEquals(productID1 + ",3," + (productPrice1 * 3), salesSummary.get(1).toString());
+				Assert.assertEquals(productID2 + ",2," + (productPrice2 * 2), salesSummary.get(2).toString());
+				Assert.assertEquals(categoryCode2 + ",3," + (productPrice3 * 3), salesSummary.get(3).toString());
+				Assert.assertEquals(productID3 + ",3," + (productPrice3 * 3), salesSummary.get(4).toString());
+				Assert.assertEquals(0, transactionManager
+						.getSalesSummary(LocalDate.now().plusDays(1), LocalDate.now().plusDays(7)).size());
+
+				// Restart, the second time without the rollup
+				TransactionManager.deleteInstance();
+				if (i == 1)
+					Assert.assertTrue(new DataFile<String>(Constants.Data.FileName.DAILY_SALES_DAT).delete());
+				transactionManager = TransactionManager.getInstance();
+			}
+		} catch (TransactionException | InventoryException | IOException exp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Test a checkout committed to the journal is applied at startup and a
+	 * checkout torn by a crash is discarded, for
+	 * {@link sg.edu.nus.iss.universitystore.data.TransactionManager#getInstance()}
+	 * .
+	 */
+	@Test
+	public void testCheckoutJournalRecovery() {
+		try {
+			Assert.assertTrue(initializeManagerDetails());
+			TransactionManager.deleteInstance();
+
+			// Checkout committed but not applied before a crash
+			CheckoutJournal checkoutJournal = new CheckoutJournal();
+			CheckoutJournal.Entry entry = new CheckoutJournal.Entry(1);
+			entry.addSale("1," + productID1 + "," + memberID + ",2," + LocalDate.now() + "\n");
+			entry.addStock(productID1, -2);
+			entry.addLoyaltyPoints(memberID, 7);
+			Assert.assertTrue(checkoutJournal.commit(entry));
+
+			// Checkout torn before its commit line
+			DataFile<String> journalData = new DataFile<>(Constants.Data.FileName.CHECKOUT_JOURNAL_DAT);
+			Assert.assertTrue(journalData.add("2,SALE,2," + productID3 + "," + memberID + ",1," + LocalDate.now()));
+			Assert.assertTrue(journalData.add("2,STOCK," + productID3 + ",-1"));
+
+			// Restart twice, the checkout must be applied only once
+			for (int i = 0; i < 2; i++) {
+				TransactionManager transactionManager = TransactionManager.getInstance();
+				ArrayList<TransactionReport> transactionReport = transactionManager.getTransactionReport();
+				Assert.assertEquals(1, transactionReport.size());
+				Assert.assertEquals(productID1, transactionReport.get(0).getItem().getProduct().getIdentifier());
+				Assert.assertEquals(2, transactionReport.get(0).getItem().getQuantity());
+				Assert.assertEquals(productQuantity1 - 2,
+						InventoryManager.getInstance().findProduct(productID1).getQuantity());
+				Assert.assertEquals((int) productQuantity3,
+						InventoryManager.getInstance().findProduct(productID3).getQuantity());
+				Assert.assertEquals(Integer.parseInt(memberLoyaltyPoints) + 7,
+						MemberManager.getInstance().getMember(memberID).getLoyaltyPoints());
+				Assert.assertEquals(0, journalData.getAll().length);
+				TransactionManager.deleteInstance();
+			}
+
+			// Next checkout continues after the recovered one
+			TransactionManager transactionManager = TransactionManager.getInstance();
+			ArrayList<TransactionItem> arrTransactionItmLst = new ArrayList<>();
+			arrTransactionItmLst.add(new TransactionItem(InventoryManager.getInstance().findProduct(productID3), 1));
+			Assert.assertTrue(transactionManager.addTransaction(arrTransactionItmLst, null, memberID, 0));
+			Assert.assertEquals(2, transactionManager.getTransactionReport().get(1).getIdentifier());
+			Assert.assertEquals(productQuantity3 - 1,
+					InventoryManager.getInstance().findProduct(productID3).getQuantity());
+			Assert.assertEquals(0, journalData.getAll().length);
+		} catch (TransactionException | InventoryException | MemberException | IOException exp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Test the sale of a committed checkout which missed the log is appended at
+	 * startup even when a later checkout was logged, for
+	 * {@link sg.edu.nus.iss.universitystore.data.TransactionManager#getInstance()}
+	 * .
+	 */
+	@Test
+	public void testCheckoutJournalRecoveryOfUnloggedSale() {
+		try {
+			Assert.assertTrue(initializeManagerDetails());
+			TransactionManager.deleteInstance();
+
+			// Two checkouts committed, only the second was logged before a crash
+			CheckoutJournal checkoutJournal = new CheckoutJournal();
+			CheckoutJournal.Entry entry = new CheckoutJournal.Entry(1);
+			entry.addSale("1," + productID1 + "," + memberID + ",2," + LocalDate.now() + "\n");
+			entry.addStock(productID1, -2);
+			Assert.assertTrue(checkoutJournal.commit(entry));
+			entry = new CheckoutJournal.Entry(2);
+			entry.addSale("2," + productID3 + "," + memberID + ",1," + LocalDate.now() + "\n");
+			entry.addStock(productID3, -1);
+			Assert.assertTrue(checkoutJournal.commit(entry));
+			Assert.assertTrue(new TransactionLog().add(LocalDate.now(),
+					"2," + productID3 + "," + memberID + ",1," + LocalDate.now()));
+
+			TransactionManager transactionManager = TransactionManager.getInstance();
+			ArrayList<TransactionReport> transactionReport = transactionManager.getTransactionReport();
+			Assert.assertEquals(2, transactionReport.size());
+			for (TransactionReport report : transactionReport) {
+				Assert.assertEquals(report.getIdentifier() == 1 ? productID1 : productID3,
+						report.getItem().getProduct().getIdentifier());
+			}
+			Assert.assertEquals(productQuantity1 - 2,
+					InventoryManager.getInstance().findProduct(productID1).getQuantity());
+			Assert.assertEquals(productQuantity3 - 1,
+					InventoryManager.getInstance().findProduct(productID3).getQuantity());
+			Assert.assertEquals(0,
+					new DataFile<String>(Constants.Data.FileName.CHECKOUT_JOURNAL_DAT).getAll().length);
+		} catch (TransactionException | InventoryException | IOException exp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Test recovery applies the changes of a checkout which were not applied
+	 * before a crash and keeps the changes made since, for
+	 * {@link sg.edu.nus.iss.universitystore.data.TransactionManager#getInstance()}
+	 * .
+	 */
+	@Test
+	public void testCheckoutJournalRecoveryOfChanges() {
+		try {
+			Assert.assertTrue(initializeManagerDetails());
+			TransactionManager.deleteInstance();
+			InventoryManager inventoryManager = InventoryManager.getInstance();
+
+			// Stock applied but not loyalty points before a crash
+			CheckoutJournal checkoutJournal = new CheckoutJournal();
+			CheckoutJournal.Entry entry = new CheckoutJournal.Entry(1);
+			entry.addSale("1," + productID1 + "," + memberID + ",2," + LocalDate.now() + "\n");
+			entry.addStock(productID1, -2);
+			entry.addLoyaltyPoints(memberID, 7);
+			Assert.assertTrue(checkoutJournal.commit(entry));
+			Assert.assertTrue(inventoryManager.applyStockDeltas(Collections.singletonMap(productID1, -2)));
+			checkoutJournal.stockApplied(entry);
+
+			// Nothing applied before a crash, the Product is restocked since
+			entry = new CheckoutJournal.Entry(2);
+			entry.addSale("2," + productID3 + "," + memberID + ",1," + LocalDate.now() + "\n");
+			entry.addStock(productID3, -1);
+			Assert.assertTrue(checkoutJournal.commit(entry));
+			Assert.assertTrue(inventoryManager.applyStockDeltas(Collections.singletonMap(productID3, 10)));
+
+			TransactionManager.getInstance();
+			Assert.assertEquals(productQuantity1 - 2, inventoryManager.findProduct(productID1).getQuantity());
+			Assert.assertEquals(productQuantity3 + 10 - 1, inventoryManager.findProduct(productID3).getQuantity());
+			Assert.assertEquals(Integer.parseInt(memberLoyaltyPoints) + 7,
+					MemberManager.getInstance().getMember(memberID).getLoyaltyPoints());
+			Assert.assertEquals(0,
+					new DataFile<String>(Constants.Data.FileName.CHECKOUT_JOURNAL_DAT).getAll().length);
+		} catch (TransactionException | InventoryException | MemberException | IOException exp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Test a recovered checkout is added to the sales rollup at its price of
+	 * sale and past sales are not valued again at the current price, for
+	 * {@link sg.edu.nus.iss.universitystore.data.TransactionManager#getInstance()}
+	 * .
+	 */
+	@Test
+	public void testCheckoutJournalRecoveryOfSales() {
+		try {
+			Assert.assertTrue(initializeManagerDetails());
+			TransactionManager transactionManager = TransactionManager.getInstance();
+			InventoryManager inventoryManager = InventoryManager.getInstance();
+
+			// Sale added to the rollup
+			ArrayList<TransactionItem> arrTransactionItmLst = new ArrayList<>();
+			arrTransactionItmLst.add(new TransactionItem(inventoryManager.findProduct(productID1), 1));
+			Assert.assertTrue(transactionManager.addTransaction(arrTransactionItmLst, null, memberID, 0));
+			TransactionManager.deleteInstance();
+
+			// Checkout committed but not applied before a crash
+			CheckoutJournal.Entry entry = new CheckoutJournal.Entry(2);
+			entry.addSale("2," + productID1 + "," + memberID + ",2," + LocalDate.now() + "\n");
+			entry.setPrice(productID1, productPrice1);
+			entry.addStock(productID1, -2);
+			Assert.assertTrue(new CheckoutJournal().commit(entry));
+
+			// The price changes before the restart
+			Product product = inventoryManager.findProduct(productID1);
+			Assert.assertTrue(inventoryManager.updateProductForTransaction(new Product(productID1,
+					product.getName(), product.getDescription(), String.valueOf(product.getQuantity()),
+					String.valueOf(productPrice1 * 2), product.getBarCode(),
+					String.valueOf(product.getReorderThreshold()), String.valueOf(product.getReorderQuantity()))));
+
+			for (int i = 0; i < 2; i++) {
+				ArrayList<SalesSummary> salesSummary = TransactionManager.getInstance()
+						.getSalesSummary(LocalDate.now(), LocalDate.now());
+				Assert.assertEquals(2, salesSummary.size());
+				Assert.assertEquals(productID1 + ",3," + (productPrice1 * 3), salesSummary.get(1).toString());
+				TransactionManager.deleteInstance();
+			}
+		} catch (TransactionException | InventoryException | IOException exp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		}
+	}
+
+	/**
+	 * Test concurrent checkouts of the same Products and Member lose no update
+	 * and sell no more than the stock, for
+	 * {@link sg.edu.nus.iss.universitystore.data.TransactionManager#addTransaction(ArrayList, String, String, int)}
+	 * .
+	 */
+	@Test
+	public void testConcurrentCheckouts() {
+		final int checkouts = 32;
+		ExecutorService executor = Executors.newFixedThreadPool(checkouts);
+		try {
+			Assert.assertTrue(initializeManagerDetails());
+
+			TransactionManager transactionManager = TransactionManager.getInstance();
+			InventoryManager invantoryManager = InventoryManager.getInstance();
+			MemberManager memberManager = MemberManager.getInstance();
+			int beforeTransaction = memberManager.getMember(memberID).getLoyaltyPoints();
+			Product product1 = invantoryManager.findProduct(productID1);
+			Product product2 = invantoryManager.findProduct(productID2);
+
+			// Every checkout buys one of each, there are fewer of Product 2
+			CountDownLatch start = new CountDownLatch(1);
+			ArrayList<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < checkouts; i++) {
+				results.add(executor.submit(() -> {
+					ArrayList<TransactionItem> arrTransactionItmLst = new ArrayList<>();
+					arrTransactionItmLst.add(new TransactionItem(product1, 1));
+					arrTransactionItmLst.add(new TransactionItem(product2, 1));
+					start.await();
+					try {
+						return transactionManager.addTransaction(arrTransactionItmLst, null, memberID, 0);
+					} catch (TransactionException exp) {
+						Assert.assertEquals(TransactionError.REQUESTED_QUANTITY_MORE_THAN_AVAILABLE.toString(),
+								exp.getMessage());
+						return false;
+					}
+				}));
+			}
+			start.countDown();
+
+			int sold = 0;
+			for (Future<Boolean> result : results) {
+				if (result.get())
+					sold++;
+			}
+			Assert.assertEquals((int) productQuantity2, sold);
+
+			// Stock, loyalty points and transactions reflect every checkout
+			Assert.assertEquals(productQuantity1 - sold, invantoryManager.findProduct(productID1).getQuantity());
+			Assert.assertEquals(0, invantoryManager.findProduct(productID2).getQuantity());
+			int gainedPoints = (int) (productPrice1 + productPrice2)
+					/ Constants.Data.Transaction.CURRENCY_TO_LOYALTY_POINTS_CONVERSION_RATE;
+			Assert.assertEquals(beforeTransaction + sold * gainedPoints,
+					memberManager.getMember(memberID).getLoyaltyPoints());
+
+			ArrayList<TransactionReport> transactionReport = transactionManager.getTransactionReport();
+			Assert.assertEquals(sold * 2, transactionReport.size());
+			TreeSet<Integer> identifiers = new TreeSet<>();
+			for (TransactionReport report : transactionReport) {
+				identifiers.add(report.getIdentifier());
+			}
+			Assert.assertEquals(sold, identifiers.size());
+			Assert.assertEquals(sold, identifiers.last().intValue());
+
+			// Nothing is left to recover after a restart
+			TransactionManager.deleteInstance();
+			InventoryManager.deleteInstance();
+			Assert.assertEquals(sold * 2, TransactionManager.getInstance().getTransactionReport().size());
+			Assert.assertEquals(0, InventoryManager.getInstance().findProduct(productID2).getQuantity());
+		} catch (TransactionException | InventoryException | MemberException | InterruptedException
+				| ExecutionException exp) {
+			fail(JUnitMessages.Error.JUNIT_FAIL);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	/**
 	 * Test Invalid Member Exception in method for
 	 * {@link sg.edu.nus.iss.universitystore.data.TransactionManager#addTransaction(java.util.ArrayList, java.lang.String, java.lang.String)}
@@ -0,0 +1,142 @@
+package sg.edu.nus.iss.universitystore.data;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import sg.edu.nus.iss.universitystore.constants.Constants;
+import sg.edu.nus.iss.universitystore.constants.JUnitConstants;
+import sg.edu.nus.iss.universitystore.model.Product;
+import sg.edu.nus.iss.universitystore.model.TransactionItem;
+import sg.edu.nus.iss.universitystore.model.TransactionReport;
+import sg.edu.nus.iss.universitystore.test.InitializeTest;
+import sg.edu.nus.iss.universitystore.utility.BenchmarkUtility;
+
+/**
+ * Benchmark for the Transaction Report. Compares the report built by a lookup
+ * of the Product for every transaction line followed by a sort with the single
+ * pass join against the Products, for growing Transaction logs. Also measures
+ * the report of the last week, which reads only the latest segment of the log.
+ * 
+ * @author Sanjay
+ *
+ */
+public class TransactionReportBenchmark {
+
+	/**
+	 * Number of lines in the Transaction Data File
+	 */
+	private static final int[] FILE_SIZES = { 10000, 100000, 1000000 };
+
+	private static final String[] CATEGORY_CODES = { "CLO", "MUG", "STA", "PEN", "BAG", "CAP", "TOY", "KEY", "ART",
+			"MAP" };
+
+	private static final int PRODUCTS_PER_CATEGORY = 100;
+
+	/**
+	 * Data File read by the lookup per line
+	 */
+	private static final String FILE_NAME = "Benchmark";
+
+	private static final int WARM_UP = 2;
+	private static final int ITERATIONS = 5;
+
+	private static ArrayList<TransactionReport> report;
+
+	public static void main(String[] args) throws Exception {
+		InitializeTest.getInstance();
+		try {
+			InventoryManager inventoryManager = InventoryManager.getInstance();
+			ArrayList<String> productIds = new ArrayList<>();
+			for (String categoryCode : CATEGORY_CODES) {
+				inventoryManager.addCategory(categoryCode, "Category " + categoryCode);
+				for (int i = 0; i < PRODUCTS_PER_CATEGORY; i++) {
+					productIds.add(inventoryManager.addProduct(categoryCode, "Product " + i, "Description", "1000",
+							"10.5", String.valueOf(8880000000000L + productIds.size()), "10", "100").getIdentifier());
+				}
+			}
+
+			for (int fileSize : FILE_SIZES) {
+				ArrayList<String> transactionLines = getTransactionLines(fileSize, productIds);
+				DataFile<String> transactionData = new DataFile<>(FILE_NAME);
+				transactionData.addAll(transactionLines);
+
+				// Lines of the single Data File are migrated to the log
+				new DataFile<String>(Constants.Data.FileName.TRANSACTION_DAT).addAll(transactionLines);
+				TransactionManager.deleteInstance();
+				TransactionManager transactionManager = TransactionManager.getInstance();
+				LocalDate lastDate = LocalDate.parse(transactionLines.get(fileSize - 1).split(",")[4]);
+
+				double nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS,
+						iteration -> report = getTransactionReportByLookup(transactionData, transactionManager));
+				BenchmarkUtility.report("Lookup per line and sort, " + fileSize + " lines", nanos);
+
+				nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS,
+						iteration -> report = transactionManager.getTransactionReport());
+				BenchmarkUtility.report("Single pass join, " + fileSize + " lines", nanos);
+
+				nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS, iteration -> report = transactionManager
+						.getTransactionReport(lastDate.minusDays(6), lastDate));
+				BenchmarkUtility.report("Last week, " + fileSize + " lines", nanos);
+			}
+		} finally {
+			TransactionManager.deleteInstance();
+			InventoryManager.deleteInstance();
+			MemberManager.deleteInstance();
+			DiscountManager.deleteInstance();
+			InitializeTest.destroyInstance();
+
+			// Remove all files from test/data directory
+			for (File testFile : new File(JUnitConstants.Data.TEST_FILE_PATH).listFiles()) {
+				if (!testFile.isDirectory())
+					Files.deleteIfExists(testFile.toPath());
+			}
+		}
+	}
+
+	/**
+	 * Report as it was built before the single pass join, every line is split
+	 * and its Product is looked up in the Inventory Manager
+	 * 
+	 * @param transactionData
+	 * @param transactionManager
+	 * @return Report sorted by Product Identifier
+	 * @throws Exception
+	 */
+	private static ArrayList<TransactionReport> getTransactionReportByLookup(DataFile<String> transactionData,
+			TransactionManager transactionManager) throws Exception {
+		ArrayList<TransactionReport> transactionList = new ArrayList<>();
+		for (String transactionStr : transactionData.getAll()) {
+			String[] transactionStrSplt = transactionStr.split(Constants.Data.FILE_SEPTR);
+			Product product = InventoryManager.getInstance().findProduct(transactionStrSplt[1]);
+			if (product == null)
+				continue;
+
+			TransactionItem transactionItem = new TransactionItem(product, Integer.valueOf(transactionStrSplt[3]));
+			transactionList.add(new TransactionReport(Integer.valueOf(transactionStrSplt[0]), transactionItem,
+					transactionStrSplt[2], transactionStrSplt[4]));
+		}
+		transactionManager.sortTransactionReport(transactionList);
+		return transactionList;
+	}
+
+	/**
+	 * Lines in the format of Transaction Data File, three items per
+	 * transaction and one transaction date per day
+	 * 
+	 * @param count
+	 * @param productIds
+	 * @return List of lines
+	 */
+	private static ArrayList<String> getTransactionLines(int count, ArrayList<String> productIds) {
+		ArrayList<String> lines = new ArrayList<>(count);
+		LocalDate date = LocalDate.of(2010, 1, 1);
+		for (int i = 0; i < count; i++) {
+			int identifier = i / 3 + 1;
+			lines.add(identifier + "," + productIds.get((int) ((i * 7919L) % productIds.size())) + ",Public,2,"
+					+ date.plusDays(identifier / 100));
+		}
+		return lines;
+	}
+}
@@ -0,0 +1,51 @@
+package sg.edu.nus.iss.universitystore.utility;
+
+/**
+ * Benchmark Utility Class, a minimal timing harness used by the benchmark
+ * mains. Runs are done in the test data directory and are not part of the
+ * JUnit suite.
+ * 
+ * @author Sanjay
+ *
+ */
+public class BenchmarkUtility {
+
+	/**
+	 * Operation to be measured
+	 */
+	public interface Operation {
+		void run(int iteration) throws Exception;
+	}
+
+	/**
+	 * Run an operation for the warm up iterations and then time the measured
+	 * iterations
+	 * 
+	 * @param warmUp
+	 * @param iterations
+	 * @param operation
+	 * @return Average nanoseconds per operation
+	 * @throws Exception
+	 */
+	public static double measure(int warmUp, int iterations, Operation operation) throws Exception {
+		for (int i = 0; i < warmUp; i++) {
+			operation.run(i);
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			operation.run(warmUp + i);
+		}
+		return (System.nanoTime() - start) / (double) iterations;
+	}
+
+	/**
+	 * Print the result of a benchmark
+	 * 
+	 * @param name
+	 * @param nanosPerOperation
+	 */
+	public static void report(String name, double nanosPerOperation) {
+		System.out.println(String.format("%-50s %14.3f us/op", name, nanosPerOperation / 1000));
+	}
+}
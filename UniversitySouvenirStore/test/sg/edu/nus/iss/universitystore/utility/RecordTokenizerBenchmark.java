@@ -0,0 +1,59 @@
+package sg.edu.nus.iss.universitystore.utility;
+
+import sg.edu.nus.iss.universitystore.constants.Constants;
+import sg.edu.nus.iss.universitystore.validation.DiscountValidation;
+import sg.edu.nus.iss.universitystore.validation.InventoryValidation;
+
+/**
+ * Benchmark for the parsing of rows of the Product and Discount Data Files.
+ * Compares the regular expression split followed by the validation of each
+ * field with the Record Tokenizer.
+ * 
+ * @author Sanjay
+ *
+ */
+public class RecordTokenizerBenchmark {
+
+	private static final String[] PRODUCT_ROWS = {
+			"CLO/1,Centenary Jumper,\"A really nice momento\",315,21.45,1234,10,100",
+			"MUG/1,Centenary Mug,\"A really nice mug, this time\",525,10.25,9876,25,150",
+			"STA/2,NUS Notepad,\"Great notepad for those lectures\",1000,3.15,6789,50,250" };
+
+	private static final String[] DISCOUNT_ROWS = { "MEMBER_FIRST,\"First purchase by member\",ALWAYS,ALWAYS,20,M",
+			"CENTENARY,\"Centenary Celebration in 2014\",2014-01-01,365,15,A",
+			"PREVIEW,\"Special discount for preview, members only\",2016-10-01,7,50.5,M" };
+
+	private static final int WARM_UP = 200000;
+	private static final int ITERATIONS = 1000000;
+
+	private static String[] tokens;
+
+	public static void main(String[] args) throws Exception {
+		double nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS, iteration -> {
+			tokens = DateUtils.extractContent(PRODUCT_ROWS[iteration % PRODUCT_ROWS.length],
+					Constants.Data.Product.Pattern.LINE_MATCH, Constants.Data.Product.Pattern.DESCRIPTION_REPLACE,
+					Constants.Data.Product.Pattern.OTHER_CNTNT_REPLACE);
+			InventoryValidation.Product.isValidData(tokens[1], tokens[7], tokens[2], tokens[3], tokens[4], tokens[5],
+					tokens[6]);
+		});
+		BenchmarkUtility.report("Product row, regex and validation", nanos);
+
+		nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS,
+				iteration -> tokens = RecordTokenizer.tokenizeProduct(PRODUCT_ROWS[iteration % PRODUCT_ROWS.length]));
+		BenchmarkUtility.report("Product row, RecordTokenizer", nanos);
+
+		nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS, iteration -> {
+			tokens = DateUtils.extractContent(DISCOUNT_ROWS[iteration % DISCOUNT_ROWS.length],
+					Constants.Data.Discount.Pattern.LINE_MATCH, Constants.Data.Discount.Pattern.DESCRIPTION_REPLACE,
+					Constants.Data.Discount.Pattern.OTHER_CNTNT_REPLACE);
+			DiscountValidation.isValidData(tokens[0], tokens[5], tokens[1], tokens[2], tokens[3], tokens[4]);
+		});
+		BenchmarkUtility.report("Discount row, regex and validation", nanos);
+
+		nanos = BenchmarkUtility.measure(WARM_UP, ITERATIONS, iteration -> {
+			tokens = RecordTokenizer.tokenizeDiscount(DISCOUNT_ROWS[iteration % DISCOUNT_ROWS.length]);
+			DiscountValidation.isValidValues(tokens[1], tokens[2], tokens[3]);
+		});
+		BenchmarkUtility.report("Discount row, RecordTokenizer and values", nanos);
+	}
+}